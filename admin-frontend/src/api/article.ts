@@ -33,6 +33,10 @@ export function untopArticle(id: number): Promise<Result<string>> {
   return request.put(`/admin/articles/${id}/untop`)
 }
 
+export function dismissDuplicate(id: number): Promise<Result<string>> {
+  return request.put(`/admin/articles/${id}/duplicate/dismiss`)
+}
+
 export function batchDeleteArticles(ids: number[]): Promise<Result<string>> {
   return request.delete('/admin/articles/batch', { data: ids })
 }
@@ -89,6 +89,7 @@ export interface ArticleQueryParams {
   keyword?: string
   categoryId?: number
   published?: boolean | null
+  duplicateOnly?: boolean
   sortField?: string
   sortOrder?: string
 }
@@ -104,6 +105,10 @@ export interface ArticleAdminResponse {
   commentCount: number
   published: boolean
   featured: boolean
+  /** 疑似重复的文章（SimHash 近似重复检测） */
+  duplicateOfId?: number | null
+  duplicateOfTitle?: string | null
+  duplicateDistance?: number | null
   createdAt: string
   updatedAt: string
 }
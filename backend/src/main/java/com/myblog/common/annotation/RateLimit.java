@@ -8,9 +8,10 @@ import java.util.concurrent.TimeUnit;
  * 
  * 设计目标：通过注解灵活配置不同接口的限流策略，基于Redis + Lua脚本实现分布式限流
  * 
- * 限流算法：滑动窗口（Sliding Window）
- * - 比固定窗口更精确，避免窗口边界的突发流量问题
- * - 基于Redis的ZSET实现，用时间戳作为score
+ * 限流算法（algorithm 属性选择，见 {@link Algorithm}）：
+ * - SLIDING_LOG: 滑动日志（默认），ZSET 记录每次请求，最精确，内存与窗口内请求数成正比
+ * - TOKEN_BUCKET: GCRA 令牌桶，每个 Key 只存一个时间戳，允许突发后匀速恢复
+ * - SLIDING_WINDOW: 双桶滑动窗口计数器，每个 Key 两个整数，近似滑动窗口
  * 
  * 限流维度：
  * - IP: 基于客户端IP限流（默认）
@@ -26,6 +27,9 @@ import java.util.concurrent.TimeUnit;
  * 
  * // 基于用户限流：1分钟内最多10次请求
  * @RateLimit(maxRequests = 10, limitType = LimitType.USER)
+ * 
+ * // 高频读接口：令牌桶，O(1) 内存
+ * @RateLimit(maxRequests = 60, algorithm = Algorithm.TOKEN_BUCKET)
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -53,6 +57,11 @@ public @interface RateLimit {
      */
     LimitType limitType() default LimitType.IP;
     
+    /**
+     * 限流算法
+     */
+    Algorithm algorithm() default Algorithm.SLIDING_LOG;
+    
     /**
      * 限流key前缀（可选，默认使用方法签名）
      * 用于自定义分组限流，如登录接口统一使用 "login" 前缀
@@ -75,4 +84,16 @@ public @interface RateLimit {
         /** 基于IP + 接口路径限流 */
         IP_AND_API
     }
+    
+    /**
+     * 限流算法枚举
+     */
+    enum Algorithm {
+        /** 滑动日志：ZSET 记录窗口内每次请求，精确，适合低配额的敏感接口（登录/注册） */
+        SLIDING_LOG,
+        /** 令牌桶（GCRA 实现）：每个 Key 一个 TAT 值，容量 maxRequests，每 timeWindow/maxRequests 恢复一个 */
+        TOKEN_BUCKET,
+        /** 滑动窗口计数器：当前窗口计数 + 上一窗口计数按时间占比加权 */
+        SLIDING_WINDOW
+    }
 }
@@ -11,6 +11,7 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
@@ -24,23 +25,33 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import jakarta.annotation.PostConstruct;
 import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 限流切面
  * 
  * 设计亮点：
  * 1. 使用Redis + Lua脚本实现原子操作，保证高并发下计数准确
- * 2. 采用滑动窗口算法，比固定窗口更精确
+ * 2. 支持滑动日志 / 令牌桶（GCRA）/ 滑动窗口计数器三种算法，按注解 algorithm 选择
  * 3. 支持多种限流维度（IP/用户/IP+API）
  * 4. 通过AOP注解方式，对业务代码零侵入
  * 5. 限流结果写入响应头，方便客户端感知
+ * 6. 本地预限流：JVM 内令牌桶挡在 Redis 前面，明显超额的请求零网络 IO 拒绝，
+ *    洪水流量下 Redis 只承受各节点本地配额之和，不随攻击流量增长
  * 
  * 面试考点：
  * - 为什么用Lua脚本？保证原子性，避免竞态条件
  * - 滑动窗口 vs 固定窗口？滑动窗口避免临界突发
  * - 为什么用ZSET？支持按时间范围高效查询和清理
+ * - ZSET 日志的代价？每个放行请求一个成员，内存 O(窗口内请求数)；
+ *   高频接口改用 GCRA（一个值）或滑动窗口计数器（两个整数），内存与 CPU 都是 O(1)
  */
 @Slf4j
 @Aspect
@@ -50,20 +61,57 @@ public class RateLimitAspect {
     
     private final RedisTemplate<String, Object> redisTemplate;
     
-    private DefaultRedisScript<List<Long>> rateLimitScript;
+    /** 本地桶清理的最小间隔（Key 数量打满时触发） */
+    private static final long LOCAL_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    /** 本地预限流开关 */
+    @Value("${blog.rate-limit.local.enabled:true}")
+    private boolean localEnabled;
+    
+    /** 本地桶容量 = 全局配额 × budget-ratio / nodes（>1 为节点间负载不均留余量） */
+    @Value("${blog.rate-limit.local.budget-ratio:1.0}")
+    private double localBudgetRatio;
+    
+    /** 集群节点数 */
+    @Value("${blog.rate-limit.local.nodes:1}")
+    private int localNodes;
+    
+    /** 本地最多同时跟踪的限流 Key 数 */
+    @Value("${blog.rate-limit.local.max-keys:100000}")
+    private int localMaxKeys;
+    
+    /** 本地令牌桶，Key 与 Redis 限流 Key 相同 */
+    private final ConcurrentHashMap<String, LocalBucket> localBuckets = new ConcurrentHashMap<>();
+    
+    private final AtomicLong lastLocalSweep = new AtomicLong(System.nanoTime() - LOCAL_SWEEP_INTERVAL_NANOS);
+    
+    /** 本节点启动以来在本地拒绝的请求数 */
+    private final LongAdder localRejected = new LongAdder();
+    
+    /** 各限流算法对应的 Lua 脚本（启动时全部加载） */
+    private final Map<RateLimit.Algorithm, DefaultRedisScript<List<Long>>> scripts =
+            new EnumMap<>(RateLimit.Algorithm.class);
     
     /**
      * 初始化Lua脚本
-     * 在Bean创建后加载脚本，避免每次请求都读取文件
+     * 在Bean创建后加载全部算法的脚本，避免每次请求都读取文件；
+     * 提前计算 SHA1，脚本缺失时启动即失败，而不是等到第一次限流
      */
     @PostConstruct
     public void init() {
-        rateLimitScript = new DefaultRedisScript<>();
-        rateLimitScript.setScriptSource(new ResourceScriptSource(
-                new ClassPathResource("scripts/rate_limit.lua")));
+        scripts.put(RateLimit.Algorithm.SLIDING_LOG, loadScript("scripts/rate_limit.lua"));
+        scripts.put(RateLimit.Algorithm.TOKEN_BUCKET, loadScript("scripts/rate_limit_gcra.lua"));
+        scripts.put(RateLimit.Algorithm.SLIDING_WINDOW, loadScript("scripts/rate_limit_sliding_window.lua"));
+    }
+    
+    private static DefaultRedisScript<List<Long>> loadScript(String path) {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
         @SuppressWarnings("unchecked")
         Class<List<Long>> resultType = (Class<List<Long>>) (Class<?>) List.class;
-        rateLimitScript.setResultType(resultType);
+        script.setResultType(resultType);
+        script.getSha1();
+        return script;
     }
     
     /**
@@ -76,19 +124,20 @@ public class RateLimitAspect {
         
         // 2. 计算时间窗口（转为毫秒）
         long windowMillis = rateLimit.timeUnit().toMillis(rateLimit.timeWindow());
-        long now = System.currentTimeMillis();
-        long windowStart = now - windowMillis;
         
-        // 窗口过期时间（秒），Key的TTL设为窗口大小的2倍，确保数据自动清理
-        long expireSeconds = rateLimit.timeUnit().toSeconds(rateLimit.timeWindow()) * 2;
-        if (expireSeconds < 1) expireSeconds = 1;
+        // 3. 本地预限流：本地桶已空说明该 Key 在本节点已明显超额，直接拒绝，不访问 Redis
+        LocalBucket localBucket = getLocalBucket(rateLimitKey, rateLimit.maxRequests(), windowMillis);
+        if (localBucket != null && !localBucket.tryAcquire()) {
+            localRejected.increment();
+            setRateLimitHeaders(rateLimit.maxRequests(), 0, windowMillis);
+            if (log.isDebugEnabled()) {
+                log.debug("本地预限流拒绝 - Key: {}", rateLimitKey);
+            }
+            throw new BusinessException(7001, rateLimit.message());
+        }
         
-        // 3. 执行Lua脚本进行限流判断
-        List<Long> result = redisTemplate.execute(
-                rateLimitScript,
-                Collections.singletonList(rateLimitKey),
-                now, windowStart, (long) rateLimit.maxRequests(), expireSeconds
-        );
+        // 4. 执行对应算法的Lua脚本进行限流判断
+        List<Long> result = tryAcquire(rateLimit.algorithm(), rateLimitKey, rateLimit.maxRequests(), windowMillis);
         
         if (result == null || result.isEmpty()) {
             log.error("限流脚本执行失败，Key: {}", rateLimitKey);
@@ -100,15 +149,20 @@ public class RateLimitAspect {
         long currentCount = result.get(1);
         long remaining = result.get(2);
         
-        // 4. 设置限流响应头（供客户端感知）
+        // 5. 设置限流响应头（供客户端感知）
         setRateLimitHeaders(rateLimit.maxRequests(), remaining, windowMillis);
         
-        // 5. 判断是否被限流
+        // 6. 判断是否被限流
         if (blocked == 1) {
             log.warn("接口限流触发 - Key: {}, 当前请求数: {}/{}, 窗口: {}s",
                     rateLimitKey, currentCount, rateLimit.maxRequests(),
                     rateLimit.timeUnit().toSeconds(rateLimit.timeWindow()));
             
+            // 全局已超额：清空本地桶，本地令牌恢复之前的重试都在本地拒绝
+            if (localBucket != null) {
+                localBucket.drain();
+            }
+            
             // 记录限流事件到Redis（供后台监控页面查询）
             recordRateLimitEvent(rateLimitKey, rateLimit);
             
@@ -120,10 +174,79 @@ public class RateLimitAspect {
                     rateLimitKey, currentCount, rateLimit.maxRequests(), remaining);
         }
         
-        // 6. 放行
+        // 7. 放行
         return joinPoint.proceed();
     }
     
+    /**
+     * 获取（或创建）本地令牌桶，未开启或 Key 数已满且清理后仍无空位时返回 null（直接走 Redis）
+     */
+    private LocalBucket getLocalBucket(String key, int maxRequests, long windowMillis) {
+        if (!localEnabled) return null;
+        LocalBucket bucket = localBuckets.get(key);
+        if (bucket != null) return bucket;
+        if (localBuckets.size() >= localMaxKeys && !sweepLocalBuckets()) return null;
+        double capacity = Math.max(1.0, maxRequests * localBudgetRatio / Math.max(1, localNodes));
+        return localBuckets.computeIfAbsent(key, k -> new LocalBucket(capacity, windowMillis));
+    }
+    
+    /**
+     * 清理已回满的本地桶（与新建的桶等价，删除不丢失状态），每秒最多执行一次
+     * 
+     * @return 清理后是否还有空位
+     */
+    private boolean sweepLocalBuckets() {
+        long now = System.nanoTime();
+        long last = lastLocalSweep.get();
+        if (now - last >= LOCAL_SWEEP_INTERVAL_NANOS && lastLocalSweep.compareAndSet(last, now)) {
+            localBuckets.values().removeIf(LocalBucket::isFull);
+        }
+        return localBuckets.size() < localMaxKeys;
+    }
+    
+    /**
+     * 本地预限流统计（本节点）
+     */
+    public Map<String, Object> getLocalStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", localEnabled);
+        stats.put("budgetRatio", localBudgetRatio);
+        stats.put("nodes", localNodes);
+        stats.put("trackedKeys", localBuckets.size());
+        stats.put("maxKeys", localMaxKeys);
+        stats.put("rejected", localRejected.sum());
+        return stats;
+    }
+    
+    /**
+     * 按指定算法执行一次限流判断
+     * 
+     * 不同算法的数据结构不同（ZSET / String / 两个计数器），Key 加算法后缀区分，
+     * 切换算法时不会因为类型不一致报 WRONGTYPE
+     * 
+     * @return [是否被限流(0/1), 当前请求数, 剩余请求数]，脚本执行失败时为 null
+     */
+    public List<Long> tryAcquire(RateLimit.Algorithm algorithm, String key, int maxRequests, long windowMillis) {
+        long now = System.currentTimeMillis();
+        DefaultRedisScript<List<Long>> script = scripts.get(algorithm);
+        switch (algorithm) {
+            case TOKEN_BUCKET:
+                return redisTemplate.execute(script, Collections.singletonList(key + ":gcra"),
+                        now, windowMillis, (long) maxRequests);
+            case SLIDING_WINDOW:
+                // 窗口序号由调用方算出，保证两个计数 Key 都通过 KEYS 传入（兼容 Cluster）
+                long window = now / windowMillis;
+                return redisTemplate.execute(script,
+                        List.of(key + ":sw:" + window, key + ":sw:" + (window - 1)),
+                        now, windowMillis, (long) maxRequests);
+            default:
+                // 窗口过期时间（秒），Key的TTL设为窗口大小的2倍，确保数据自动清理
+                long expireSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(windowMillis) * 2);
+                return redisTemplate.execute(script, Collections.singletonList(key),
+                        now, now - windowMillis, (long) maxRequests, expireSeconds);
+        }
+    }
+    
     /**
      * 构建限流Key
      * 
@@ -264,6 +387,48 @@ public class RateLimitAspect {
         }
     }
     
+    /**
+     * 本地令牌桶：容量为本节点分到的配额，按窗口匀速恢复
+     * 单个桶的操作很短，直接用 synchronized
+     */
+    private static final class LocalBucket {
+        
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+        
+        LocalBucket(double capacity, long windowMillis) {
+            this.capacity = capacity;
+            this.tokensPerNano = capacity / TimeUnit.MILLISECONDS.toNanos(windowMillis);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+        
+        synchronized boolean tryAcquire() {
+            refill();
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+        
+        synchronized void drain() {
+            refill();
+            tokens = 0;
+        }
+        
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+        
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+    
     private HttpServletRequest getHttpServletRequest() {
         try {
             ServletRequestAttributes attributes = (ServletRequestAttributes) 
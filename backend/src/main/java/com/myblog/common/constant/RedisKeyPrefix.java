@@ -49,6 +49,23 @@ public class RedisKeyPrefix {
      * TTL：永久（定期同步到数据库）
      */
     public static final String ARTICLE_VIEW_COUNT = "article:view:count:";
+
+    /**
+     * 浏览量脏集合
+     * Key格式：article:view:dirty
+     * Value：自上次同步以来有浏览增量的文章ID（SET）
+     */
+    public static final String ARTICLE_VIEW_DIRTY = "article:view:dirty";
+
+    /**
+     * 浏览量待落库增量
+     * Key格式：article:view:pending
+     * Value：HASH（field=文章ID，value=已从计数器取出、尚未写入DB的增量）
+     */
+    public static final String ARTICLE_VIEW_PENDING = "article:view:pending";
+
+    /** 浏览量落库任务锁（多实例部署时只允许一个实例读取并写入待落库增量） */
+    public static final String LOCK_VIEW_COUNT_SYNC = "lock:view:count:sync";
     
     /**
      * 分类缓存前缀
@@ -120,16 +137,61 @@ public class RedisKeyPrefix {
     /** 签到 BitMap — Key格式：sign:{userId}:{yyyyMM} */
     public static final String SIGN = "sign:";
 
+    /** 连续签到状态 — HASH（Key格式：sign:streak:{userId}，last=最近签到日 epochDay / cur=当前连续 / best=历史最长） */
+    public static final String SIGN_STREAK = "sign:streak:";
+
+    /** 当前连续签到榜 — ZSET（Key格式：sign:rank:current:{yyyyMMdd}，当天签到的用户，score=连续天数） */
+    public static final String SIGN_RANK_CURRENT = "sign:rank:current:";
+
+    /** 最长连续签到榜 — ZSET (score=历史最长连续天数, member=userId) */
+    public static final String SIGN_RANK_BEST = "sign:rank:best";
+
+    /** 全站每日签到位图 — BitMap（Key格式：sign:daily:{yyyyMMdd}，offset=userId） */
+    public static final String SIGN_DAILY = "sign:daily:";
+
+    /** 签到统计 BITOP 临时结果 — BitMap（Key格式：sign:daily:tmp:{uuid}:{序号}，统计完立即删除） */
+    public static final String SIGN_DAILY_TMP = "sign:daily:tmp:";
+
     // ========== 一人一赞系统 ==========
 
-    /** 文章点赞用户集合 — SET */
+    /** 文章点赞用户集合 — SET（旧格式，仅供 LikeStorageService 迁移使用） */
     public static final String ARTICLE_LIKED = "article:liked:";
 
+    /** 注册用户点赞位图 — BitMap（Key格式：article:like:bits:{articleId}，offset = userId） */
+    public static final String ARTICLE_LIKE_BITS = "article:like:bits:";
+
+    /** 游客点赞指纹集合 — SET（Key格式：article:like:anon:{articleId}，成员为 63 位整数指纹） */
+    public static final String ARTICLE_LIKE_ANON = "article:like:anon:";
+
     /** 文章点赞计数器 — String */
     public static final String ARTICLE_LIKE_COUNT = "article:like:count:";
 
-    /** 分布式锁：点赞（用户级） */
-    public static final String LOCK_LIKE = "lock:like:";
+    /** 点赞数脏集合 — SET（自上次同步以来点赞数有变化的文章ID） */
+    public static final String ARTICLE_LIKE_DIRTY = "article:like:dirty";
+
+    /** 脏集合中最早一次未同步变更的时间戳（毫秒）— String，用于计算同步延迟 */
+    public static final String ARTICLE_LIKE_DIRTY_SINCE = "article:like:dirty:since";
+
+    /** 点赞数同步运行指标 — HASH（lastRunAt / lastChanged / lastLagMs / lastDurationMs） */
+    public static final String ARTICLE_LIKE_SYNC_STATS = "article:like:sync:stats";
+
+    /** 点赞切换事件队列 — LIST（{1|0}|articleId|时间戳|visitorId，待写入 article_likes 表） */
+    public static final String ARTICLE_LIKE_EVENTS = "article:like:events";
+
+    /** 点赞事件处理中队列 — LIST（已取出、等待 DB 提交的一批事件） */
+    public static final String ARTICLE_LIKE_EVENTS_PROCESSING = "article:like:events:processing";
+
+    /** 单篇文章未落库的点赞状态 — HASH（Key格式：article:like:pending:{articleId}，field=visitorId，value=1/0），重建时只读本文章 */
+    public static final String ARTICLE_LIKE_PENDING = "article:like:pending:";
+
+    /** 点赞事件落库任务锁（多实例部署时只允许一个实例消费处理中队列） */
+    public static final String LOCK_LIKE_EVENT_SYNC = "lock:like:event:sync";
+
+    /** 点赞关系重建锁（Key格式：lock:like:rehydrate:{articleId}） */
+    public static final String LOCK_LIKE_REHYDRATE = "lock:like:rehydrate:";
+
+    /** 点赞连点去重窗口 — String（Key格式：like:dedupe:{visitorId}:{articleId}，PX 过期） */
+    public static final String LIKE_DEDUPE = "like:dedupe:";
 
     // ========== 标签订阅Feed流 ==========
 
@@ -139,9 +201,42 @@ public class RedisKeyPrefix {
     /** 标签的关注者集合（反向索引）— SET */
     public static final String TAG_FOLLOWERS = "tag:followers:";
 
+    /** 关注关系加载标记 — HASH（status / count / maxId / lastId / loadedAt / rate），count + maxId 与 DB 一致时跳过冷启动重建 */
+    public static final String FOLLOW_GRAPH_META = "follow:graph:meta";
+
+    /** 关注关系加载锁（多节点同时启动时只由一个节点加载） */
+    public static final String LOCK_FOLLOW_GRAPH_LOAD = "lock:follow:graph:load";
+
+    /** 标签时间线 — ZSet (score=发布时间戳, member=articleId)，新关注者回填用；大标签的关注者读 Feed 时拉取 */
+    public static final String TAG_TIMELINE = "tag:timeline:";
+
+    /** 启用过拉模型的大标签 — SET (member=tagId) */
+    public static final String TAG_BIG = "tag:big";
+
     /** 用户 Feed 收件箱 — ZSet (score=时间戳, member=articleId) */
     public static final String FEED = "feed:";
 
+    /** Feed 扇出任务检查点 — HASH（Key格式：feed:fanout:job:{articleId}，status / tags / tagIndex / pushed / total ...） */
+    public static final String FEED_FANOUT_JOB = "feed:fanout:job:";
+
+    /** 未完成的 Feed 扇出任务 — ZSET（score=最近心跳时间戳, member=articleId，供恢复任务补发） */
+    public static final String FEED_FANOUT_PENDING = "feed:fanout:pending";
+
+    /** Feed 墓碑 — ZSET (score=删除 / 撤回时间戳, member=articleId)，读 Feed 时跳过 */
+    public static final String FEED_TOMBSTONE = "feed:tombstone";
+
+    /** 用户最近一次读 Feed / 关注标签的时间 — ZSET (score=时间戳, member=userId)，清理任务据此回收不活跃收件箱 */
+    public static final String FEED_ACTIVE = "feed:active";
+
+    /** Feed 清理任务的 SCAN 游标 — String（任务中断或达到单次预算后从此处继续） */
+    public static final String FEED_CLEANUP_CURSOR = "feed:cleanup:cursor";
+
+    /** Feed 清理任务锁（多实例部署时只允许一个实例执行） */
+    public static final String LOCK_FEED_CLEANUP = "lock:feed:cleanup";
+
+    /** Feed 扇出任务锁（Key格式：lock:feed:fanout:{articleId}，防止重复投递并发执行） */
+    public static final String LOCK_FEED_FANOUT = "lock:feed:fanout:";
+
     // ========== UV统计与热门榜 ==========
 
     /** 文章 UV — HyperLogLog */
@@ -150,6 +245,53 @@ public class RedisKeyPrefix {
     /** 全站日 UV — HyperLogLog */
     public static final String STATS_UV_DAILY = "stats:uv:daily:";
 
-    /** 本周热门榜 — ZSet (score=UV数, member=articleId) */
+    /** 本周热门榜 — ZSet (score=滚动 7 日 UV 或衰减热度分, member=articleId) */
     public static final String ARTICLE_HOT_WEEKLY = "article:hot:weekly";
-}
\ No newline at end of file
+
+    /** 本周热门榜文章的 7 日 UV — HASH (field=articleId, value=UV) */
+    public static final String ARTICLE_HOT_WEEKLY_UV = "article:hot:weekly:uv";
+
+    /** 热门榜重建运行指标 — HASH（lastRunAt / lastSize / lastDurationMs 等） */
+    public static final String ARTICLE_HOT_WEEKLY_STATS = "article:hot:weekly:stats";
+
+    // ========== 实时热度榜 ==========
+
+    /** 实时热度榜 — ZSET（Key格式：trending:{1h|24h|7d}:{all | cat:{categoryId} | tag:{tagId}}，前向衰减分） */
+    public static final String TRENDING = "trending:";
+
+    /** 榜单前向衰减基准时间 — HASH（field=榜单 Key，value=epoch 秒；field=窗口名 为升级前的窗口级基准） */
+    public static final String TRENDING_EPOCH = "trending:meta:epoch";
+
+    /** 实时热度榜注册表 — SET（所有榜单 Key，供重置基准时遍历，避免 SCAN） */
+    public static final String TRENDING_REGISTRY = "trending:meta:keys";
+
+    // ========== 文章时序统计 ==========
+
+    /** 文章小时桶 — HASH（Key格式：ts:article:hour:{articleId}:{yyyyMMdd}，field={v|l|c}:{HH}） */
+    public static final String TS_ARTICLE_HOUR = "ts:article:hour:";
+
+    /** 文章日 UV — HyperLogLog（Key格式：ts:article:uv:{articleId}:{yyyyMMdd}，也用于滚动 7 日热门榜） */
+    public static final String TS_ARTICLE_UV_DAILY = "ts:article:uv:";
+
+    /** 文章月 UV — HyperLogLog（Key格式：ts:article:uv:month:{articleId}:{yyyyMM}） */
+    public static final String TS_ARTICLE_UV_MONTHLY = "ts:article:uv:month:";
+
+    /** 当日有统计数据的文章 — SET（Key格式：ts:article:active:{yyyyMMdd}，供汇总任务遍历） */
+    public static final String TS_ARTICLE_ACTIVE = "ts:article:active:";
+
+    /** 统计汇总任务锁（多实例部署时只允许一个实例覆盖写入日 / 月表） */
+    public static final String LOCK_ARTICLE_STATS_COMPACT = "lock:article:stats:compact";
+
+    // ========== 近似重复检测 ==========
+
+    /** 文章 SimHash 指纹 — HASH (field=articleId, value=64位指纹) */
+    public static final String ARTICLE_SIMHASH = "article:simhash";
+
+    /** SimHash LSH 分桶 — SET，Key格式：article:simhash:band:{段号}:{段值hex} */
+    public static final String ARTICLE_SIMHASH_BAND = "article:simhash:band:";
+
+    // ========== 评论审核 ==========
+
+    /** 违禁词库版本号 — String（管理员增删违禁词时 INCR，各实例发现版本变化后重建自动机） */
+    public static final String MODERATION_WORDS_VERSION = "moderation:words:version";
+}
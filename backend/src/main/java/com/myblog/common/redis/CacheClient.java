@@ -9,10 +9,13 @@ import com.myblog.common.constant.RedisKeyPrefix;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RBloomFilter;
 import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +28,7 @@ import java.util.function.Function;
  * - queryWithBloomFilter：布隆过滤器 + 空值缓存（防穿透）
  * - queryWithMutex：SETNX 互斥锁重建（防击穿 — 强一致性）
  * - queryWithLogicalExpire：逻辑过期 + 异步重建（防击穿 — 高可用）
+ * - queryMany：批量查询（MGET + 批量回源 + Pipeline 回写）
  * - TTL 随机偏移（防雪崩）
  */
 @Slf4j
@@ -48,10 +52,14 @@ public class CacheClient {
      * 写入缓存（带随机偏移 TTL 防雪崩）
      */
     public void set(String key, Object value, Long time, TimeUnit unit) {
+        stringRedisTemplate.opsForValue().set(key, JSONUtil.toJsonStr(value), randomTtlSeconds(time, unit), TimeUnit.SECONDS);
+    }
+
+    /** 带随机偏移的 TTL（秒） */
+    private long randomTtlSeconds(Long time, TimeUnit unit) {
         long randomOffset = RandomUtil.randomLong(-300, 301); // ±5分钟
         long ttlSeconds = unit.toSeconds(time) + randomOffset;
-        if (ttlSeconds <= 0) ttlSeconds = unit.toSeconds(time);
-        stringRedisTemplate.opsForValue().set(key, JSONUtil.toJsonStr(value), ttlSeconds, TimeUnit.SECONDS);
+        return ttlSeconds > 0 ? ttlSeconds : unit.toSeconds(time);
     }
 
     /**
@@ -195,6 +203,67 @@ public class CacheClient {
         return data;
     }
 
+    /**
+     * 批量查询（列表页 / Feed / 榜单用）
+     *
+     * ① 一次 MGET 读取全部 Key
+     * ② 未命中的 ID 一次性交给 batchDbFallback 回源（调用方用 IN 查询 + 批量组装）
+     * ③ 回源结果一次 Pipeline 回写（随机 TTL 防雪崩），不存在的 ID 写空值防穿透
+     *
+     * 与单条查询不同，这里不加互斥锁：批量回源本身只有一次 DB 查询，并发重复回源的代价可以接受
+     *
+     * @return 按输入顺序排列的结果，不存在的 ID 被跳过
+     */
+    public <R, ID> List<R> queryMany(
+            String keyPrefix, List<ID> ids, Class<R> type,
+            Function<List<ID>, Map<ID, R>> batchDbFallback, Long time, TimeUnit unit
+    ) {
+        if (ids == null || ids.isEmpty()) return Collections.emptyList();
+
+        // ① MGET
+        List<String> keys = new ArrayList<>(ids.size());
+        for (ID id : ids) keys.add(keyPrefix + id);
+        List<String> jsons = stringRedisTemplate.opsForValue().multiGet(keys);
+
+        Map<ID, R> found = new HashMap<>();
+        List<ID> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String json = jsons != null ? jsons.get(i) : null;
+            if (StrUtil.isNotBlank(json)) {
+                found.put(ids.get(i), JSONUtil.toBean(json, type));
+            } else if (json == null) {
+                missing.add(ids.get(i));
+            }
+            // 空字符串：空值缓存命中，跳过
+        }
+
+        // ② 批量回源 + ③ Pipeline 回写
+        if (!missing.isEmpty()) {
+            Map<ID, R> loaded = batchDbFallback.apply(missing);
+            found.putAll(loaded);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (ID id : missing) {
+                    R data = loaded.get(id);
+                    if (data != null) {
+                        conn.setEx(keyPrefix + id, randomTtlSeconds(time, unit), JSONUtil.toJsonStr(data));
+                    } else {
+                        conn.setEx(keyPrefix + id, 120, "");
+                    }
+                }
+                return null;
+            });
+            log.debug("[CacheClient] 批量查询: prefix={}, 命中 {} / {}", keyPrefix, ids.size() - missing.size(), ids.size());
+        }
+
+        List<R> result = new ArrayList<>(found.size());
+        for (ID id : ids) {
+            R data = found.get(id);
+            if (data != null) result.add(data);
+        }
+        return result;
+    }
+
     // ========== 锁操作 ==========
 
     private boolean tryLock(String key) {
@@ -0,0 +1,101 @@
+package com.myblog.common.result;
+
+import com.myblog.common.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页响应体（键集分页）
+ * 设计目标：深翻页不退化为 OFFSET 扫描，默认不执行 COUNT
+ *
+ * 排序键固定为 (createdAt DESC, id DESC)，id 保证同一时刻的多条记录顺序稳定；
+ * 游标是最后一条记录 "createdAt|id" 的 Base64URL 编码，对前端不透明，原样回传即可
+ *
+ * @param <T> 数据类型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 数据列表
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标（没有下一页时为 null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否有下一页
+     */
+    private Boolean hasNext;
+
+    /**
+     * 总记录数（仅在请求 withTotal=true 时返回）
+     */
+    private Long total;
+
+    /**
+     * 游标解码结果
+     */
+    public record Key(LocalDateTime createdAt, Long id) {}
+
+    /**
+     * 由多查一条的结果构造分页：rows.size() > size 说明还有下一页
+     *
+     * @param rows      按 (createdAt DESC, id DESC) 排好序的 size + 1 条记录
+     * @param size      每页大小
+     * @param createdAt 取排序时间
+     * @param id        取主键
+     * @param mapper    实体 → 响应对象
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, LocalDateTime> createdAt, Function<E, Long> id,
+                                          Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            E last = page.get(page.size() - 1);
+            nextCursor = encode(createdAt.apply(last), id.apply(last));
+        }
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor, hasNext, null);
+    }
+
+    public CursorPage<T> withTotal(Long total) {
+        this.total = total;
+        return this;
+    }
+
+    public static String encode(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标，空游标返回 null（表示第一页）
+     */
+    public static Key decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Key(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+}
@@ -17,7 +17,8 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
  * 架构设计：
  * 1. 评论通知交换机 → 评论通知队列（发送邮件通知）
  * 2. 操作日志交换机 → 操作日志队列（异步写入DB）
- * 3. 死信交换机 → 死信队列（兜底处理失败消息）
+ * 3. Feed 交换机 → Feed 扇出队列（文章推送到关注者收件箱）
+ * 4. 死信交换机 → 死信队列（兜底处理失败消息）
  * 
  * 面试亮点：
  * - Direct Exchange 精确路由
@@ -31,16 +32,19 @@ public class RabbitMQConfig {
     // ==================== 交换机名称 ====================
     public static final String COMMENT_EXCHANGE = "blog.comment.exchange";
     public static final String LOG_EXCHANGE = "blog.log.exchange";
+    public static final String FEED_EXCHANGE = "blog.feed.exchange";
     public static final String DLX_EXCHANGE = "blog.dlx.exchange";
 
     // ==================== 队列名称 ====================
     public static final String COMMENT_NOTIFICATION_QUEUE = "blog.comment.notification.queue";
     public static final String LOG_QUEUE = "blog.log.queue";
+    public static final String FEED_FANOUT_QUEUE = "blog.feed.fanout.queue";
     public static final String DLX_QUEUE = "blog.dlx.queue";
 
     // ==================== 路由键 ====================
     public static final String COMMENT_ROUTING_KEY = "comment.notification";
     public static final String LOG_ROUTING_KEY = "log.operation";
+    public static final String FEED_FANOUT_ROUTING_KEY = "feed.fanout";
     public static final String DLX_ROUTING_KEY = "dlx.#";
 
     // ==================== 消息转换器 ====================
@@ -159,4 +163,31 @@ public class RabbitMQConfig {
                 .to(logExchange())
                 .with(LOG_ROUTING_KEY);
     }
+
+    // ==================== Feed 扇出交换机和队列 ====================
+
+    @Bean
+    public DirectExchange feedExchange() {
+        return new DirectExchange(FEED_EXCHANGE, true, false);
+    }
+
+    /**
+     * Feed 扇出队列
+     * - 持久化
+     * - 绑定死信交换机（任务本身有 Redis 检查点，进入死信后由 FeedFanoutRecoveryTask 重新投递）
+     */
+    @Bean
+    public Queue feedFanoutQueue() {
+        return QueueBuilder.durable(FEED_FANOUT_QUEUE)
+                .withArgument("x-dead-letter-exchange", DLX_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", "dlx.feed")
+                .build();
+    }
+
+    @Bean
+    public Binding feedFanoutBinding() {
+        return BindingBuilder.bind(feedFanoutQueue())
+                .to(feedExchange())
+                .with(FEED_FANOUT_ROUTING_KEY);
+    }
 }
@@ -105,6 +105,7 @@ public class RedisConfig {
      *   categories        - 分类列表（2小时）
      *   tags              - 标签列表（2小时）
      *   dashboardStats    - 仪表盘统计（5分钟）
+     *   commentTree       - 文章评论树（30分钟，评论增删 / 审核时失效）
      */
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
@@ -125,6 +126,7 @@ public class RedisConfig {
         cacheConfigs.put("categories", defaultConfig.entryTtl(Duration.ofHours(2)));
         cacheConfigs.put("tags", defaultConfig.entryTtl(Duration.ofHours(2)));
         cacheConfigs.put("dashboardStats", defaultConfig.entryTtl(Duration.ofMinutes(5)));
+        cacheConfigs.put("commentTree", defaultConfig.entryTtl(Duration.ofMinutes(30)));
         
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
@@ -64,6 +64,7 @@ public class SecurityConfig {
                 // 点赞接口允许匿名访问（游客用 IP 标识）
                 .requestMatchers(HttpMethod.POST, "/api/articles/*/like").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/articles/*/like/status").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/articles/like/status").permitAll()
                 // 标签关注状态可匿名查看
                 .requestMatchers(HttpMethod.GET, "/api/tags/*/follow/status").permitAll()
                 // 需要认证的接口
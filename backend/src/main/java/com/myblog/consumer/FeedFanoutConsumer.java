@@ -0,0 +1,49 @@
+package com.myblog.consumer;
+
+import com.myblog.config.RabbitMQConfig;
+import com.myblog.dto.mq.FeedFanoutMessage;
+import com.myblog.service.FeedService;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feed 扇出消费者
+ *
+ * 把新文章推送到所有关注者的收件箱（FeedService.runFanout）
+ *
+ * - 手动ACK：处理中崩溃时消息未确认，RabbitMQ 重新投递，任务从 Redis 检查点继续
+ * - 失败 → nack 不重回队列 → 死信；检查点仍在待处理集合中，由 FeedFanoutRecoveryTask 补发
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedFanoutConsumer {
+
+    private final FeedService feedService;
+
+    @RabbitListener(queues = RabbitMQConfig.FEED_FANOUT_QUEUE)
+    public void handleFanout(FeedFanoutMessage message,
+                             Channel channel,
+                             @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        try {
+            long pushed = feedService.runFanout(message.getArticleId());
+            if (pushed < 0) {
+                log.info("[Feed消费者] 任务已完成或正在执行，跳过: articleId={}", message.getArticleId());
+            }
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            log.error("[Feed消费者] 扇出失败: messageId={}, articleId={}",
+                    message.getMessageId(), message.getArticleId(), e);
+            try {
+                channel.basicNack(deliveryTag, false, false);
+            } catch (Exception ex) {
+                log.error("[Feed消费者] NACK失败", ex);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.myblog.controller;
 
 import com.myblog.common.annotation.RateLimit;
+import com.myblog.common.exception.BusinessException;
 import com.myblog.dto.ApiResponse;
 import com.myblog.dto.ArchiveResponse;
 import com.myblog.dto.ArticleRequest;
@@ -20,6 +21,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/articles")
@@ -28,7 +30,10 @@ public class ArticleController {
 
     private final ArticleService articleService;
 
-    @RateLimit(maxRequests = 60, timeWindow = 60, limitType = RateLimit.LimitType.IP_AND_API)
+    /** 批量点赞状态单次最多查询的文章数 */
+    private static final int MAX_LIKE_STATUS_BATCH = 100;
+
+    @RateLimit(maxRequests = 60, timeWindow = 60, limitType = RateLimit.LimitType.IP_AND_API, algorithm = RateLimit.Algorithm.TOKEN_BUCKET)
     @GetMapping
     public ResponseEntity<ApiResponse<Page<ArticleResponse>>> getArticles(
             @PageableDefault(size = 10, sort = "publishedAt", direction = Sort.Direction.DESC) Pageable pageable) {
@@ -39,7 +44,7 @@ public class ArticleController {
      * 获取文章详情 + PV/UV 统计
      * 改造：传入 HttpServletRequest 用于 UV 指纹生成
      */
-    @RateLimit(maxRequests = 60, timeWindow = 60, limitType = RateLimit.LimitType.IP_AND_API)
+    @RateLimit(maxRequests = 60, timeWindow = 60, limitType = RateLimit.LimitType.IP_AND_API, algorithm = RateLimit.Algorithm.TOKEN_BUCKET)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ArticleResponse>> getArticle(
             @PathVariable Long id, HttpServletRequest request) {
@@ -66,6 +71,20 @@ public class ArticleController {
         return ResponseEntity.ok(ApiResponse.success(articleService.getWeeklyHotArticles(limit)));
     }
 
+    /**
+     * 实时热度榜（1h / 24h / 7d，可按分类或标签）
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<ArticleResponse>>> getTrending(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long tagId,
+            @RequestParam(defaultValue = "10") int limit) {
+        int size = Math.min(Math.max(limit, 1), 50);
+        return ResponseEntity.ok(ApiResponse.success(
+                articleService.getTrendingArticles(window, categoryId, tagId, size)));
+    }
+
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<ApiResponse<Page<ArticleResponse>>> getArticlesByCategory(
             @PathVariable Long categoryId,
@@ -124,6 +143,23 @@ public class ArticleController {
         return ResponseEntity.ok(ApiResponse.success(dto));
     }
 
+    /**
+     * 批量查询点赞状态（列表页一次请求拿到所有卡片的点赞状态）
+     * Body: [1, 2, 3]
+     */
+    @RateLimit(maxRequests = 60, timeWindow = 60, limitType = RateLimit.LimitType.IP_AND_API, prefix = "likeStatus", algorithm = RateLimit.Algorithm.TOKEN_BUCKET)
+    @PostMapping("/like/status")
+    public ResponseEntity<ApiResponse<Map<Long, LikeResponseDTO>>> getLikeStatuses(
+            @RequestBody List<Long> ids,
+            @AuthenticationPrincipal User user,
+            HttpServletRequest request) {
+        if (ids.size() > MAX_LIKE_STATUS_BATCH) {
+            throw new BusinessException("单次最多查询 " + MAX_LIKE_STATUS_BATCH + " 篇文章");
+        }
+        String visitorId = resolveVisitorId(user, request);
+        return ResponseEntity.ok(ApiResponse.success(articleService.getLikeStatuses(ids, visitorId)));
+    }
+
     /**
      * 解析访客标识：登录用户用 userId，游客用 IP 哈希
      */
@@ -2,6 +2,7 @@ package com.myblog.controller;
 
 import com.myblog.dto.ApiResponse;
 import com.myblog.dto.CheckInCalendarDTO;
+import com.myblog.dto.CheckInLeaderboardDTO;
 import com.myblog.dto.CheckInStatsDTO;
 import com.myblog.entity.User;
 import com.myblog.service.CheckInService;
@@ -14,7 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.YearMonth;
 
 /**
- * 读者签到控制器 — BitMap 签到 + 连续签到统计
+ * 读者签到控制器 — BitMap 签到 + 连续签到统计 + 连续签到排行榜
  */
 @RestController
 @RequestMapping("/api/checkin")
@@ -53,4 +54,16 @@ public class CheckInController {
     ) {
         return ResponseEntity.ok(ApiResponse.success(checkInService.getCalendar(user.getId(), month)));
     }
+
+    /**
+     * 连续签到排行榜（type=current 当前连续 / best 历史最长）
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<ApiResponse<CheckInLeaderboardDTO>> getLeaderboard(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "current") String type,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(checkInService.getLeaderboard(type, limit, user.getId())));
+    }
 }
@@ -1,6 +1,7 @@
 package com.myblog.controller;
 
 import com.myblog.common.annotation.RateLimit;
+import com.myblog.common.result.CursorPage;
 import com.myblog.dto.ApiResponse;
 import com.myblog.dto.CommentRequest;
 import com.myblog.dto.CommentResponse;
@@ -30,13 +31,27 @@ public class CommentController {
         return ResponseEntity.ok(ApiResponse.success(commentService.getCommentsByArticle(articleId, pageable)));
     }
 
+    /**
+     * 顶层评论游标分页（createdAt 倒序），首页不传 cursor，之后回传 nextCursor
+     */
+    @GetMapping("/article/{articleId}/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<CommentResponse>>> getCommentsByCursor(
+            @PathVariable Long articleId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(
+                commentService.getCommentsByCursor(articleId, cursor, Math.max(1, Math.min(size, 100)))));
+    }
+
     @RateLimit(maxRequests = 10, timeWindow = 60, limitType = RateLimit.LimitType.IP_AND_API, prefix = "comment", message = "评论过于频繁，请1分钟后再试")
     @PostMapping("/article/{articleId}")
     public ResponseEntity<ApiResponse<CommentResponse>> createComment(
             @PathVariable Long articleId,
             @Valid @RequestBody CommentRequest request,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(ApiResponse.success("评论成功", commentService.createComment(articleId, request, currentUser)));
+        CommentResponse comment = commentService.createComment(articleId, request, currentUser);
+        String message = Boolean.TRUE.equals(comment.getApproved()) ? "评论成功" : "评论已提交，审核通过后展示";
+        return ResponseEntity.ok(ApiResponse.success(message, comment));
     }
 
     @DeleteMapping("/{id}")
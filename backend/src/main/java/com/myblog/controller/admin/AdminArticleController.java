@@ -7,16 +7,22 @@ import com.myblog.dto.ArticleRequest;
 import com.myblog.dto.ArticleResponse;
 import com.myblog.dto.admin.ArticleAdminResponse;
 import com.myblog.dto.admin.ArticleQueryRequest;
+import com.myblog.dto.admin.ArticleStatsResponse;
 import com.myblog.entity.User;
 import com.myblog.service.ArticleService;
+import com.myblog.service.ArticleStatsService;
+import com.myblog.service.FeedService;
 import com.myblog.service.admin.AdminArticleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 管理端文章控制器
@@ -32,6 +38,9 @@ import java.util.List;
  *   PUT    /api/admin/articles/{id}/unpublish - 取消发布
  *   PUT    /api/admin/articles/{id}/top       - 置顶文章
  *   PUT    /api/admin/articles/{id}/untop     - 取消置顶
+ *   PUT    /api/admin/articles/{id}/duplicate/dismiss - 忽略疑似重复标记
+ *   GET    /api/admin/articles/{id}/stats    - 文章时序统计（小时/日/月）
+ *   GET    /api/admin/articles/{id}/feed-fanout - Feed 扇出任务进度
  *   DELETE /api/admin/articles/batch          - 批量删除
  */
 @RestController
@@ -42,6 +51,8 @@ public class AdminArticleController {
 
     private final AdminArticleService adminArticleService;
     private final ArticleService articleService;
+    private final ArticleStatsService articleStatsService;
+    private final FeedService feedService;
 
     /**
      * 分页查询文章列表
@@ -130,6 +141,42 @@ public class AdminArticleController {
         return Result.success("已取消置顶");
     }
 
+    /**
+     * 忽略疑似重复标记
+     * PUT /api/admin/articles/1/duplicate/dismiss
+     */
+    @PutMapping("/{id}/duplicate/dismiss")
+    @Log(module = "文章管理", operationType = "UPDATE", description = "忽略疑似重复标记")
+    public Result<String> dismissDuplicate(@PathVariable Long id) {
+        adminArticleService.dismissDuplicate(id);
+        return Result.success("已忽略重复标记");
+    }
+
+    /**
+     * 文章时序统计（浏览 / UV / 点赞 / 评论）
+     * GET /api/admin/articles/1/stats?from=2026-01-01&to=2026-01-31&granularity=day
+     * 不传 from / to 时默认最近 7 天
+     */
+    @GetMapping("/{id}/stats")
+    public Result<ArticleStatsResponse> stats(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(6);
+        return Result.success(articleStatsService.query(id, start, end, granularity));
+    }
+
+    /**
+     * Feed 扇出任务进度（status / tagIndex / pushed 等，完成后保留 1 天）
+     * GET /api/admin/articles/1/feed-fanout
+     */
+    @GetMapping("/{id}/feed-fanout")
+    public Result<Map<String, Object>> feedFanout(@PathVariable Long id) {
+        return Result.success(feedService.getFanoutProgress(id));
+    }
+
     /**
      * 批量删除文章
      * DELETE /api/admin/articles/batch
@@ -13,7 +13,7 @@ import java.util.*;
  * 管理端缓存监控控制器
  * 
  * 接口列表：
- *   GET    /api/admin/cache/stats      - 获取缓存统计（Redis信息 + 各空间Key数量）
+ *   GET    /api/admin/cache/stats      - 获取缓存统计（Redis信息 + 各空间Key数量 + 点赞同步指标）
  *   GET    /api/admin/cache/names      - 获取所有缓存空间名称
  *   DELETE /api/admin/cache/{name}     - 清除指定缓存空间
  *   DELETE /api/admin/cache/all        - 清除所有缓存
@@ -28,13 +28,15 @@ public class AdminCacheController {
 
     /**
      * 获取缓存综合统计
-     * 返回：Redis服务器信息 + 各缓存空间统计
+     * 返回：Redis服务器信息 + 各缓存空间统计 + 点赞数同步指标
      */
     @GetMapping("/stats")
     public Result<Map<String, Object>> getStats() {
         Map<String, Object> stats = new LinkedHashMap<>();
         stats.put("redisInfo", cacheService.getRedisInfo());
         stats.put("cacheSpaces", cacheService.getCacheSpaceStats());
+        stats.put("likeSync", cacheService.getLikeSyncStats());
+        stats.put("hotRank", cacheService.getHotRankStats());
         return Result.success(stats);
     }
 
@@ -1,13 +1,14 @@
 package com.myblog.controller.admin;
 
 import com.myblog.common.annotation.Log;
+import com.myblog.common.result.CursorPage;
 import com.myblog.common.result.PageResult;
 import com.myblog.common.result.Result;
-import com.myblog.entity.Comment;
-import com.myblog.repository.CommentRepository;
+import com.myblog.dto.admin.CommentAdminResponse;
+import com.myblog.dto.admin.CommentQueryRequest;
+import com.myblog.service.CommentService;
+import com.myblog.service.admin.AdminCommentService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,10 +20,13 @@ import java.util.List;
  * 权限要求：ADMIN角色
  *
  * 接口列表：
- *   GET    /api/admin/comments              - 分页查询评论
- *   PUT    /api/admin/comments/{id}/approve - 审核通过
- *   DELETE /api/admin/comments/{id}         - 删除单条评论
- *   DELETE /api/admin/comments/batch        - 批量删除
+ *   GET    /api/admin/comments               - 分页查询评论（支持审核状态/文章/时间范围/关键词筛选）
+ *   GET    /api/admin/comments/cursor        - 游标分页查询评论（筛选条件同上）
+ *   GET    /api/admin/comments/pending       - 待审核评论（自动审核未通过）
+ *   PUT    /api/admin/comments/{id}/approve  - 审核通过
+ *   PUT    /api/admin/comments/batch/approve - 批量审核通过
+ *   DELETE /api/admin/comments/{id}          - 删除单条评论（连同回复）
+ *   DELETE /api/admin/comments/batch         - 批量删除（连同回复）
  */
 @RestController
 @RequestMapping("/api/admin/comments")
@@ -30,24 +34,36 @@ import java.util.List;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminCommentController {
 
-    private final CommentRepository commentRepository;
+    private final CommentService commentService;
+    private final AdminCommentService adminCommentService;
 
     /**
-     * 分页查询所有评论（按创建时间倒序）
-     * GET /api/admin/comments?page=1&size=10
+     * 分页查询评论（按创建时间倒序）
+     * GET /api/admin/comments?page=1&size=10&approved=false&articleId=1&keyword=xxx
+     *     &startTime=2026-01-01T00:00:00&endTime=2026-02-01T00:00:00
      */
     @GetMapping
-    public Result<PageResult<Comment>> list(
-            @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<Comment> commentPage = commentRepository.findAllByOrderByCreatedAtDesc(
-                PageRequest.of(page - 1, size));
-        return Result.success(new PageResult<>(
-                commentPage.getContent(),
-                commentPage.getTotalElements(),
-                (long) page,
-                (long) size
-        ));
+    public Result<PageResult<CommentAdminResponse>> list(CommentQueryRequest request) {
+        return Result.success(adminCommentService.getComments(request));
+    }
+
+    /**
+     * 游标分页查询评论（按创建时间倒序，默认不统计总数）
+     * GET /api/admin/comments/cursor?cursor=xxx&size=10&withTotal=false&approved=false
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPage<CommentAdminResponse>> listByCursor(CommentQueryRequest request) {
+        return Result.success(adminCommentService.getCommentsByCursor(request));
+    }
+
+    /**
+     * 分页查询待审核评论（moderationReason 为自动审核未通过的原因）
+     * GET /api/admin/comments/pending?page=1&size=10
+     */
+    @GetMapping("/pending")
+    public Result<PageResult<CommentAdminResponse>> pending(CommentQueryRequest request) {
+        request.setApproved(false);
+        return Result.success(adminCommentService.getComments(request));
     }
 
     /**
@@ -57,13 +73,22 @@ public class AdminCommentController {
     @PutMapping("/{id}/approve")
     @Log(module = "评论管理", operationType = "UPDATE", description = "审核通过评论")
     public Result<String> approve(@PathVariable Long id) {
-        Comment comment = commentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("评论不存在，id=" + id));
-        comment.setApproved(true);
-        commentRepository.save(comment);
+        commentService.approveComments(List.of(id));
         return Result.success("审核通过");
     }
 
+    /**
+     * 批量审核通过
+     * PUT /api/admin/comments/batch/approve
+     * Body: [1, 2, 3]
+     */
+    @PutMapping("/batch/approve")
+    @Log(module = "评论管理", operationType = "UPDATE", description = "批量审核通过评论")
+    public Result<String> batchApprove(@RequestBody List<Long> ids) {
+        int approved = commentService.approveComments(ids);
+        return Result.success("已审核通过 " + approved + " 条评论");
+    }
+
     /**
      * 删除单条评论
      * DELETE /api/admin/comments/1
@@ -71,7 +96,7 @@ public class AdminCommentController {
     @DeleteMapping("/{id}")
     @Log(module = "评论管理", operationType = "DELETE", description = "删除评论")
     public Result<String> delete(@PathVariable Long id) {
-        commentRepository.deleteById(id);
+        commentService.deleteComments(List.of(id));
         return Result.success("删除成功");
     }
 
@@ -83,7 +108,7 @@ public class AdminCommentController {
     @DeleteMapping("/batch")
     @Log(module = "评论管理", operationType = "DELETE", description = "批量删除评论")
     public Result<String> batchDelete(@RequestBody List<Long> ids) {
-        commentRepository.deleteAllById(ids);
+        commentService.deleteComments(ids);
         return Result.success("批量删除成功");
     }
 }
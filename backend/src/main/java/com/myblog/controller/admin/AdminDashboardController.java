@@ -2,6 +2,7 @@ package com.myblog.controller.admin;
 
 import com.myblog.common.annotation.Log;
 import com.myblog.common.result.Result;
+import com.myblog.dto.admin.CheckInAnalyticsDTO;
 import com.myblog.dto.admin.DashboardStatsDTO;
 import com.myblog.service.admin.DashboardService;
 import lombok.RequiredArgsConstructor;
@@ -65,4 +66,14 @@ public class AdminDashboardController {
     public Result<Map<String, Object>> getUvTrend(@RequestParam(defaultValue = "7") int days) {
         return Result.success(dashboardService.getUvTrend(days));
     }
+
+    /**
+     * 获取签到活跃度统计（DAU / WAU / MAU / N 日留存）
+     * @param days 签到趋势天数（默认7天，最多60天）
+     */
+    @GetMapping("/checkin")
+    @Log(module = "仪表盘", operationType = "QUERY", description = "查看签到活跃度")
+    public Result<CheckInAnalyticsDTO> getCheckInAnalytics(@RequestParam(defaultValue = "7") int days) {
+        return Result.success(dashboardService.getCheckInAnalytics(days));
+    }
 }
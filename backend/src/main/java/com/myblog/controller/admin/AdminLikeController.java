@@ -0,0 +1,61 @@
+package com.myblog.controller.admin;
+
+import com.myblog.common.annotation.Log;
+import com.myblog.common.exception.BusinessException;
+import com.myblog.common.result.Result;
+import com.myblog.service.LikeStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 点赞存储管理控制器
+ *
+ * 功能：
+ * 1. 手动触发旧格式点赞集合迁移
+ * 2. 内存压测：对比旧 SET 与 位图 + 游客指纹集合 的占用
+ */
+@RestController
+@RequestMapping("/api/admin/likes")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminLikeController {
+
+    /** 默认压测规模：1千 / 10万 / 100万 条点赞 */
+    private static final int[] DEFAULT_BENCHMARK_SIZES = {1_000, 100_000, 1_000_000};
+
+    private static final int MAX_BENCHMARK_SIZE = 1_000_000;
+
+    private final LikeStorageService likeStorageService;
+
+    /**
+     * 迁移旧格式点赞集合（幂等）
+     */
+    @PostMapping("/migrate")
+    @Log(module = "点赞管理", operationType = "UPDATE", description = "迁移旧格式点赞集合")
+    public Result<Map<String, Object>> migrate() {
+        return Result.success(likeStorageService.migrateLegacySets());
+    }
+
+    /**
+     * 内存压测（不传 size 时依次跑 1k / 100k / 1M）
+     */
+    @PostMapping("/benchmark")
+    @Log(module = "点赞管理", operationType = "OTHER", description = "点赞存储内存压测")
+    public Result<Map<Integer, List<Map<String, Object>>>> benchmark(@RequestParam(required = false) Integer size) {
+        if (size != null && (size <= 0 || size > MAX_BENCHMARK_SIZE)) {
+            throw new BusinessException("压测规模需在 1 ~ " + MAX_BENCHMARK_SIZE + " 之间");
+        }
+        int[] sizes = size != null ? new int[]{size} : DEFAULT_BENCHMARK_SIZES;
+
+        Map<Integer, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        for (int likes : sizes) {
+            results.put(likes, likeStorageService.benchmark(likes));
+        }
+        return Result.success(results);
+    }
+}
@@ -0,0 +1,74 @@
+package com.myblog.controller.admin;
+
+import com.myblog.common.annotation.Log;
+import com.myblog.common.result.Result;
+import com.myblog.entity.BannedWord;
+import com.myblog.service.CommentModerationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 管理端评论审核控制器
+ * 基础路径：/api/admin/moderation
+ * 权限要求：ADMIN角色
+ *
+ * 接口列表：
+ *   GET    /api/admin/moderation/words       - 获取违禁词列表
+ *   POST   /api/admin/moderation/words       - 批量添加违禁词
+ *   DELETE /api/admin/moderation/words/{id}  - 删除违禁词
+ *   POST   /api/admin/moderation/reload      - 从数据库重建自动机
+ *
+ * 增删违禁词后本实例立即生效，其他实例在下一次版本检查（30 秒内）生效
+ */
+@RestController
+@RequestMapping("/api/admin/moderation")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminModerationController {
+
+    private final CommentModerationService commentModerationService;
+
+    /**
+     * 获取违禁词列表（新添加的在前）
+     */
+    @GetMapping("/words")
+    public Result<List<BannedWord>> listWords() {
+        return Result.success(commentModerationService.listWords());
+    }
+
+    /**
+     * 批量添加违禁词
+     * POST /api/admin/moderation/words
+     * Body: ["词1", "词2"]
+     */
+    @PostMapping("/words")
+    @Log(module = "评论审核", operationType = "CREATE", description = "添加违禁词")
+    public Result<String> addWords(@RequestBody List<String> words) {
+        int added = commentModerationService.addWords(words);
+        return Result.success("新增 " + added + " 个违禁词");
+    }
+
+    /**
+     * 删除违禁词
+     * DELETE /api/admin/moderation/words/1
+     */
+    @DeleteMapping("/words/{id}")
+    @Log(module = "评论审核", operationType = "DELETE", description = "删除违禁词")
+    public Result<String> deleteWord(@PathVariable Long id) {
+        commentModerationService.deleteWord(id);
+        return Result.success("删除成功");
+    }
+
+    /**
+     * 从数据库重建自动机（直接改库后使用）
+     */
+    @PostMapping("/reload")
+    @Log(module = "评论审核", operationType = "UPDATE", description = "重建违禁词自动机")
+    public Result<String> reload() {
+        int words = commentModerationService.reload();
+        return Result.success("已加载 " + words + " 个违禁词");
+    }
+}
@@ -1,5 +1,6 @@
 package com.myblog.controller.admin;
 
+import com.myblog.common.result.CursorPage;
 import com.myblog.dto.NotificationResponse;
 import com.myblog.entity.User;
 import com.myblog.service.NotificationService;
@@ -58,6 +59,23 @@ public class AdminNotificationController {
         ));
     }
 
+    /**
+     * 获取管理员通知列表（游标分页，适合无限滚动）
+     * GET /api/admin/notifications/cursor?cursor=xxx&size=20&withTotal=false
+     *
+     * 首页不传 cursor，之后回传上一页的 nextCursor
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> getNotificationsByCursor(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<NotificationResponse> notifications = notificationService.getUserNotificationsByCursor(
+                user.getId(), cursor, Math.max(1, Math.min(size, 100)), withTotal);
+        return ResponseEntity.ok(Map.of("code", 200, "data", notifications));
+    }
+
     /**
      * 获取未读通知数
      */
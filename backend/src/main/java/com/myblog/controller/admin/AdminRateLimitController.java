@@ -1,9 +1,12 @@
 package com.myblog.controller.admin;
 
 import com.myblog.common.annotation.Log;
+import com.myblog.common.aspect.RateLimitAspect;
 import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.common.exception.BusinessException;
 import com.myblog.common.result.Result;
 import com.myblog.service.IpBlacklistService;
+import com.myblog.service.RateLimitBenchmarkService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -23,6 +26,7 @@ import java.util.concurrent.TimeUnit;
  * 3. IP黑名单管理（增删查）
  * 4. IP白名单管理（增删查）
  * 5. 查看黑名单操作日志
+ * 6. 限流算法压测（延迟 / 吞吐 / Redis 内存）
  */
 @Slf4j
 @RestController
@@ -31,7 +35,12 @@ import java.util.concurrent.TimeUnit;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminRateLimitController {
     
+    /** 压测总请求数上限（rps × seconds） */
+    private static final int MAX_BENCHMARK_REQUESTS = 200_000;
+    
     private final IpBlacklistService ipBlacklistService;
+    private final RateLimitBenchmarkService rateLimitBenchmarkService;
+    private final RateLimitAspect rateLimitAspect;
     private final RedisTemplate<String, Object> redisTemplate;
     
     // ==================== 限流统计 ====================
@@ -88,6 +97,9 @@ public class AdminRateLimitController {
         }
         stats.put("apiStats", apiStats);
         
+        // 本节点本地预限流统计
+        stats.put("local", rateLimitAspect.getLocalStats());
+        
         return Result.success(stats);
     }
     
@@ -116,6 +128,27 @@ public class AdminRateLimitController {
         return Result.success(result);
     }
     
+    /**
+     * 限流算法压测：三种算法依次以 rps 速率压测 seconds 秒
+     * 默认 10k rps × 5s，100 个客户端 Key，每 Key 60 秒 1000 次
+     */
+    @PostMapping("/benchmark")
+    @Log(module = "限流管理", operationType = "OTHER", description = "限流算法压测")
+    public Result<List<Map<String, Object>>> benchmark(
+            @RequestParam(defaultValue = "10000") int rps,
+            @RequestParam(defaultValue = "5") int seconds,
+            @RequestParam(defaultValue = "100") int keys,
+            @RequestParam(defaultValue = "1000") int maxRequests,
+            @RequestParam(defaultValue = "60") int windowSeconds) {
+        if (rps <= 0 || seconds <= 0 || keys <= 0 || maxRequests <= 0 || windowSeconds <= 0) {
+            throw new BusinessException("压测参数必须为正数");
+        }
+        if ((long) rps * seconds > MAX_BENCHMARK_REQUESTS) {
+            throw new BusinessException("单个算法压测请求数（rps × seconds）不能超过 " + MAX_BENCHMARK_REQUESTS);
+        }
+        return Result.success(rateLimitBenchmarkService.benchmark(rps, seconds, keys, maxRequests, windowSeconds));
+    }
+    
     // ==================== IP黑名单管理 ====================
     
     /**
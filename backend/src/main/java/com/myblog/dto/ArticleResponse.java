@@ -28,6 +28,8 @@ public class ArticleResponse {
     private Boolean featured;
     /** 独立访客数（UV） */
     private Long uvCount;
+    /** 实时热度分（仅 trending 接口返回） */
+    private Double trendingScore;
     /** 当前用户是否已赞（未登录为 null） */
     private Boolean liked;
     private LocalDateTime publishedAt;
@@ -23,6 +23,6 @@ public class CheckInCalendarDTO {
     private List<Integer> signedDays;
     /** 本月签到总天数 */
     private Integer signCount;
-    /** 当前连续签到天数 */
+    /** 当前连续签到天数（跨月累计） */
     private Integer consecutiveDays;
 }
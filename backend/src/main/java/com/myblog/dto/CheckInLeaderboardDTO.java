@@ -0,0 +1,38 @@
+package com.myblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 连续签到排行榜 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInLeaderboardDTO {
+    /** 榜单类型：current = 当前连续，best = 历史最长连续 */
+    private String type;
+    /** 榜单（按连续天数降序） */
+    private List<Entry> list;
+    /** 当前用户名次（未上榜为 null） */
+    private Long myRank;
+    /** 当前用户连续天数 */
+    private Integer myDays;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private Long rank;
+        private Long userId;
+        private String nickname;
+        private String avatar;
+        private Integer days;
+    }
+}
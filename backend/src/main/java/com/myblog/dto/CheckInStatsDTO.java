@@ -15,8 +15,10 @@ import lombok.NoArgsConstructor;
 public class CheckInStatsDTO {
     /** 本月签到天数 */
     private Integer signCount;
-    /** 当前连续签到天数 */
+    /** 当前连续签到天数（跨月累计） */
     private Integer consecutiveDays;
+    /** 历史最长连续签到天数 */
+    private Integer bestConsecutiveDays;
     /** 今日是否已签到 */
     private Boolean signedToday;
     /** 触发的成就（如 LOYAL_READER, HARDCORE_FAN） */
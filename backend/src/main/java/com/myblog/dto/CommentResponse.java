@@ -17,7 +17,13 @@ public class CommentResponse {
     private String content;
     private UserInfo user;
     private String guestName;
+    /** 父评论ID（顶层评论为 null） */
+    private Long parentId;
+    /** 回复总数（含多级回复） */
+    private Integer replyCount;
     private List<CommentResponse> replies;
+    /** 是否已展示（自动审核未通过时为 false，等待人工审核） */
+    private Boolean approved;
     private LocalDateTime createdAt;
     
     @Data
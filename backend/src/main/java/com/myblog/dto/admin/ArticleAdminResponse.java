@@ -47,6 +47,15 @@ public class ArticleAdminResponse {
     /** 是否置顶 */
     private Boolean featured;
 
+    /** 疑似重复的文章ID（SimHash 近似重复检测，null 表示未命中） */
+    private Long duplicateOfId;
+
+    /** 疑似重复的文章标题 */
+    private String duplicateOfTitle;
+
+    /** 与疑似重复文章的海明距离（越小越相似） */
+    private Integer duplicateDistance;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -24,6 +24,9 @@ public class ArticleQueryRequest {
     /** 发布状态：true=已发布，false=草稿，null=全部 */
     private Boolean published;
 
+    /** 只看疑似重复文章 */
+    private Boolean duplicateOnly;
+
     /** 排序字段，默认按创建时间 */
     private String sortField = "createdAt";
 
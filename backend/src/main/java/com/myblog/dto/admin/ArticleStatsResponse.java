@@ -0,0 +1,47 @@
+package com.myblog.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 文章时序统计DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleStatsResponse {
+
+    /**
+     * 文章ID
+     */
+    private Long articleId;
+
+    /**
+     * 粒度：hour / day / month
+     */
+    private String granularity;
+
+    /**
+     * 时间桶序列（按时间升序，无数据的桶补 0）
+     */
+    private List<Point> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        /** 桶起点：yyyy-MM-dd HH:00 / yyyy-MM-dd / yyyy-MM */
+        private String bucket;
+        private Long views;
+        /** 小时粒度不统计 UV，为 null */
+        private Long uv;
+        private Long likes;
+        private Long comments;
+    }
+}
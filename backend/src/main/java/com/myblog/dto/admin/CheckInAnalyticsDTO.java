@@ -0,0 +1,60 @@
+package com.myblog.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 签到活跃度统计DTO（基于全站每日签到位图）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInAnalyticsDTO {
+
+    /**
+     * 今日签到人数（DAU）
+     */
+    private Long dau;
+
+    /**
+     * 近 7 天签到去重人数（WAU）
+     */
+    private Long wau;
+
+    /**
+     * 近 30 天签到去重人数（MAU）
+     */
+    private Long mau;
+
+    /**
+     * 每日签到人数趋势
+     */
+    private List<DashboardStatsDTO.TrendItem> dauTrend;
+
+    /**
+     * N 日留存（以 N 天前签到的用户为队列，统计昨天仍签到的比例）
+     */
+    private List<RetentionItem> retention;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RetentionItem {
+        /** 留存天数 N */
+        private Integer days;
+        /** 队列日期（MM-dd） */
+        private String cohortDate;
+        /** 队列人数 */
+        private Long cohortSize;
+        /** 留存人数 */
+        private Long retained;
+        /** 留存率（0 ~ 1） */
+        private Double rate;
+    }
+}
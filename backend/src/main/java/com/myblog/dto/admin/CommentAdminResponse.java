@@ -0,0 +1,66 @@
+package com.myblog.dto.admin;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 管理端评论列表响应体
+ *
+ * 由 JPQL 构造器表达式直接投影，不加载 Comment 实体及其懒加载关联；
+ * article / user 保持嵌套结构，与原先返回实体时的 JSON 字段兼容
+ */
+@Data
+@NoArgsConstructor
+public class CommentAdminResponse {
+
+    private Long id;
+
+    /** 评论内容 */
+    private String content;
+
+    /** 所属文章 */
+    private ArticleBrief article;
+
+    /** 评论者（游客评论为 null） */
+    private UserBrief user;
+
+    /** 游客昵称 / 邮箱 */
+    private String guestName;
+    private String guestEmail;
+
+    /** 父评论ID（顶层评论为 null） */
+    private Long parentId;
+
+    /** 审核状态 */
+    private Boolean approved;
+
+    /** 自动审核未通过的原因 */
+    private String moderationReason;
+
+    private LocalDateTime createdAt;
+
+    public record ArticleBrief(Long id, String title) {}
+
+    public record UserBrief(Long id, String username, String nickname) {}
+
+    /**
+     * 投影构造器（参数顺序与 CommentRepository.searchForAdmin 的 SELECT 列一致）
+     */
+    public CommentAdminResponse(Long id, String content, Long articleId, String articleTitle,
+                                Long userId, String username, String nickname,
+                                String guestName, String guestEmail, Long parentId,
+                                Boolean approved, String moderationReason, LocalDateTime createdAt) {
+        this.id = id;
+        this.content = content;
+        this.article = new ArticleBrief(articleId, articleTitle);
+        this.user = userId != null ? new UserBrief(userId, username, nickname) : null;
+        this.guestName = guestName;
+        this.guestEmail = guestEmail;
+        this.parentId = parentId;
+        this.approved = approved;
+        this.moderationReason = moderationReason;
+        this.createdAt = createdAt;
+    }
+}
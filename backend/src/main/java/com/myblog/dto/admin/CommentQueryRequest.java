@@ -0,0 +1,43 @@
+package com.myblog.dto.admin;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 管理端评论查询请求参数
+ * 支持审核状态、文章、时间范围、关键词筛选；页码分页与游标分页共用
+ */
+@Data
+public class CommentQueryRequest {
+
+    /** 当前页码，从1开始（页码分页） */
+    private int page = 1;
+
+    /** 每页条数 */
+    private int size = 10;
+
+    /** 审核状态：true=已通过，false=待审核，null=全部 */
+    private Boolean approved;
+
+    /** 文章ID筛选 */
+    private Long articleId;
+
+    /** 创建时间下界（含） */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime startTime;
+
+    /** 创建时间上界（不含） */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime endTime;
+
+    /** 搜索关键词（评论内容模糊匹配） */
+    private String keyword;
+
+    /** 游标（游标分页，首页为空） */
+    private String cursor;
+
+    /** 游标分页时是否统计总数 */
+    private boolean withTotal;
+}
@@ -0,0 +1,30 @@
+package com.myblog.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Feed 扇出任务消息 DTO
+ *
+ * 文章发布后只投递这条消息，由 FeedFanoutConsumer 异步推送到关注者收件箱；
+ * 任务进度记录在 Redis（feed:fanout:job:{articleId}），重复投递时从检查点继续
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedFanoutMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 消息ID */
+    private String messageId;
+
+    /** 文章ID（同时是任务ID） */
+    private Long articleId;
+}
@@ -67,6 +67,15 @@ public class Article {
 
     private LocalDateTime publishedAt;
 
+    /** 正文 64 位 SimHash 指纹（近似重复检测） */
+    private Long simHash;
+
+    /** 疑似重复的文章ID（null 表示未命中） */
+    private Long duplicateOfId;
+
+    /** 与疑似重复文章的海明距离 */
+    private Integer duplicateDistance;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
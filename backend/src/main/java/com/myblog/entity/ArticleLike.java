@@ -0,0 +1,42 @@
+package com.myblog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章点赞记录实体
+ *
+ * 点赞关系的持久化副本：Redis 位图 / 指纹集合负责热路径，
+ * 本表由 ArticleLikeSyncTask 批量写入，Redis 丢失时据此重建
+ */
+@Entity
+@Table(name = "article_likes",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"article_id", "visitor_id"}),
+        indexes = @Index(name = "idx_like_article", columnList = "article_id")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArticleLike {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 文章 ID */
+    @Column(name = "article_id", nullable = false)
+    private Long articleId;
+
+    /** 访客 ID：登录用户为 userId，游客为 anon:ipHash */
+    @Column(name = "visitor_id", nullable = false, length = 64)
+    private String visitorId;
+
+    /** 点赞时间（取自 Redis 中的切换事件时间） */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,53 @@
+package com.myblog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 文章日统计实体
+ *
+ * 由 ArticleStatsCompactTask 每小时从 Redis 小时桶汇总写入
+ */
+@Entity
+@Table(name = "article_stats_daily",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"article_id", "stat_date"}),
+        indexes = @Index(name = "idx_stats_daily_date", columnList = "stat_date")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArticleStatsDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 文章 ID */
+    @Column(name = "article_id", nullable = false)
+    private Long articleId;
+
+    /** 统计日期 */
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    /** 浏览量 */
+    @Builder.Default
+    private Long views = 0L;
+
+    /** 独立访客数 */
+    @Builder.Default
+    private Long uv = 0L;
+
+    /** 点赞净增量（点赞 - 取消） */
+    @Builder.Default
+    private Long likes = 0L;
+
+    /** 新增评论数 */
+    @Builder.Default
+    private Long comments = 0L;
+}
@@ -0,0 +1,53 @@
+package com.myblog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 文章月统计实体
+ *
+ * 由 ArticleStatsCompactTask 从日统计表汇总，UV 取自月级 HyperLogLog
+ */
+@Entity
+@Table(name = "article_stats_monthly",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"article_id", "stat_month"}),
+        indexes = @Index(name = "idx_stats_monthly_month", columnList = "stat_month")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArticleStatsMonthly {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 文章 ID */
+    @Column(name = "article_id", nullable = false)
+    private Long articleId;
+
+    /** 统计月份（当月 1 日） */
+    @Column(name = "stat_month", nullable = false)
+    private LocalDate statMonth;
+
+    /** 浏览量 */
+    @Builder.Default
+    private Long views = 0L;
+
+    /** 独立访客数 */
+    @Builder.Default
+    private Long uv = 0L;
+
+    /** 点赞净增量（点赞 - 取消） */
+    @Builder.Default
+    private Long likes = 0L;
+
+    /** 新增评论数 */
+    @Builder.Default
+    private Long comments = 0L;
+}
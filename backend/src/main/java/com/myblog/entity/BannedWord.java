@@ -0,0 +1,41 @@
+package com.myblog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 评论违禁词实体
+ *
+ * 管理员维护，CommentModerationService 据此构建 Aho-Corasick 自动机
+ */
+@Entity
+@Table(name = "banned_words",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"word"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BannedWord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 违禁词（保存原文，匹配时统一归一化） */
+    @Column(nullable = false, length = 100)
+    private String word;
+
+    /** 创建时间 */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -14,7 +14,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+    // 管理后台游标分页：ORDER BY created_at DESC, id DESC
+    @Index(name = "idx_comment_created_id", columnList = "created_at, id"),
+    // 文章评论树：article_id + approved 过滤后按 (created_at, id) 有序读取，免排序
+    @Index(name = "idx_comment_article_created", columnList = "article_id, approved, created_at, id")
+})
 public class Comment {
 
     @Id
@@ -46,6 +51,10 @@ public class Comment {
     @Builder.Default
     private Boolean approved = true;
 
+    /** 自动审核未通过的原因（命中的违禁词 / 规则，通过时为空） */
+    @Column(length = 500)
+    private String moderationReason;
+
     private LocalDateTime createdAt;
 
     @PrePersist
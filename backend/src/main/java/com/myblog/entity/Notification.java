@@ -24,7 +24,9 @@ import java.time.LocalDateTime;
 @Table(name = "notifications", indexes = {
     @Index(name = "idx_notification_recipient", columnList = "recipient_id"),
     @Index(name = "idx_notification_read", columnList = "recipient_id, is_read"),
-    @Index(name = "idx_notification_created", columnList = "created_at")
+    @Index(name = "idx_notification_created", columnList = "created_at"),
+    // 游标分页：recipient_id 等值 / IS NULL 两个分支各自按 (created_at, id) 有序扫描
+    @Index(name = "idx_notification_recipient_created", columnList = "recipient_id, created_at, id")
 })
 public class Notification {
 
@@ -0,0 +1,20 @@
+package com.myblog.repository;
+
+import com.myblog.entity.ArticleLike;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArticleLikeRepository extends JpaRepository<ArticleLike, Long> {
+
+    /**
+     * 批量查询若干文章的点赞访客（Redis 重建用），返回 [articleId, visitorId]
+     */
+    @Query("SELECT l.articleId, l.visitorId FROM ArticleLike l WHERE l.articleId IN :articleIds")
+    List<Object[]> findVisitorsByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+}
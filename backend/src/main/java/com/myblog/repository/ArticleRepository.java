@@ -5,12 +5,14 @@ import com.myblog.entity.Category;
 import com.myblog.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -78,4 +80,39 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
      */
     @Query("SELECT a.id FROM Article a WHERE a.published = true")
     List<Long> findAllPublishedArticleIds();
+
+    // ========== 近似重复检测 ==========
+
+    /**
+     * 查询被标记为疑似重复的文章（管理后台筛选用）
+     */
+    Page<Article> findByDuplicateOfIdIsNotNull(Pageable pageable);
+
+    /**
+     * 查询所有文章的 SimHash 指纹（LSH 索引重建用）
+     * 返回 [id, simHash]
+     */
+    @Query("SELECT a.id, a.simHash FROM Article a WHERE a.simHash IS NOT NULL")
+    List<Object[]> findAllSimHashes();
+
+    /**
+     * 批量查询已发布文章的分类与标签（实时热度按分类 / 标签分榜用），返回 [articleId, categoryId, tagId]
+     * 每个标签一行；无标签的文章 tagId 为 null；未发布的文章不返回，其事件不计入榜单
+     */
+    @Query("SELECT a.id, c.id, t.id FROM Article a LEFT JOIN a.category c LEFT JOIN a.tags t " +
+           "WHERE a.id IN :ids AND a.published = true")
+    List<Object[]> findCategoryAndTagIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按 ID 批量查询文章，同时抓取作者 / 分类 / 标签（批量组装 ArticleResponse 用，避免逐条懒加载）
+     */
+    @EntityGraph(attributePaths = {"author", "category", "tags"})
+    List<Article> findAllByIdIn(Collection<Long> ids);
+
+    /**
+     * 标签下最近发布的文章，返回 [id, publishedAt]（标签时间线冷启动重建用）
+     */
+    @Query("SELECT a.id, a.publishedAt FROM Article a JOIN a.tags t " +
+            "WHERE t.id = :tagId AND a.published = true AND a.publishedAt IS NOT NULL ORDER BY a.publishedAt DESC")
+    List<Object[]> findRecentPublishedByTagId(@Param("tagId") Long tagId, Pageable pageable);
 }
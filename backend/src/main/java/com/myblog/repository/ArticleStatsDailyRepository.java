@@ -0,0 +1,26 @@
+package com.myblog.repository;
+
+import com.myblog.entity.ArticleStatsDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArticleStatsDailyRepository extends JpaRepository<ArticleStatsDaily, Long> {
+
+    List<ArticleStatsDaily> findByArticleIdAndStatDateBetweenOrderByStatDate(Long articleId, LocalDate from, LocalDate to);
+
+    /**
+     * 按文章汇总一段日期内的日统计（月度汇总用），返回 [articleId, views, likes, comments]
+     */
+    @Query("SELECT d.articleId, SUM(d.views), SUM(d.likes), SUM(d.comments) FROM ArticleStatsDaily d " +
+            "WHERE d.articleId IN :articleIds AND d.statDate BETWEEN :from AND :to GROUP BY d.articleId")
+    List<Object[]> sumByArticleIds(@Param("articleIds") Collection<Long> articleIds,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+}
@@ -0,0 +1,14 @@
+package com.myblog.repository;
+
+import com.myblog.entity.ArticleStatsMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ArticleStatsMonthlyRepository extends JpaRepository<ArticleStatsMonthly, Long> {
+
+    List<ArticleStatsMonthly> findByArticleIdAndStatMonthBetweenOrderByStatMonth(Long articleId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,22 @@
+package com.myblog.repository;
+
+import com.myblog.entity.BannedWord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BannedWordRepository extends JpaRepository<BannedWord, Long> {
+
+    boolean existsByWord(String word);
+
+    List<BannedWord> findAllByOrderByIdDesc();
+
+    /**
+     * 全部违禁词文本（构建自动机用）
+     */
+    @Query("SELECT w.word FROM BannedWord w")
+    List<String> findAllWords();
+}
@@ -1,15 +1,18 @@
 package com.myblog.repository;
 
+import com.myblog.dto.admin.CommentAdminResponse;
 import com.myblog.entity.Article;
 import com.myblog.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +21,25 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByParentAndApprovedTrue(Comment parent);
     long countByArticle(Article article);
 
+    /**
+     * 一次查出文章全部已审核评论（JOIN FETCH 评论者），按时间正序，供内存构建评论树
+     */
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.user " +
+            "WHERE c.article.id = :articleId AND c.approved = true ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findApprovedWithUserByArticleId(@Param("articleId") Long articleId);
+
+    /**
+     * 评论所属文章ID，返回 [commentId, articleId]（删除 / 审核后失效评论树缓存用）
+     */
+    @Query("SELECT c.id, c.article.id FROM Comment c WHERE c.id IN :ids")
+    List<Object[]> findArticleIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量统计文章评论数，返回 [articleId, count]（没有评论的文章不出现在结果中）
+     */
+    @Query("SELECT c.article.id, COUNT(c) FROM Comment c WHERE c.article.id IN :articleIds GROUP BY c.article.id")
+    List<Object[]> countByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+
     // ========== 管理后台统计查询 ==========
 
     /**
@@ -36,6 +58,83 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      */
     Page<Comment> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
+    /**
+     * 管理后台评论列表：DTO 投影 + 条件筛选 + 键集分页
+     *
+     * 只 SELECT 列表需要的列，不加载实体，也不会触发 article / user / parent 的懒加载；
+     * 参数为 null 表示不筛选，cursorTime 为 null 时取第一页（也可配合 offset 做页码分页）
+     */
+    @Query("SELECT new com.myblog.dto.admin.CommentAdminResponse(c.id, c.content, a.id, a.title, " +
+            "u.id, u.username, u.nickname, c.guestName, c.guestEmail, p.id, c.approved, c.moderationReason, c.createdAt) " +
+            "FROM Comment c JOIN c.article a LEFT JOIN c.user u LEFT JOIN c.parent p " +
+            "WHERE (:approved IS NULL OR c.approved = :approved) " +
+            "AND (:articleId IS NULL OR a.id = :articleId) " +
+            "AND (:startTime IS NULL OR c.createdAt >= :startTime) " +
+            "AND (:endTime IS NULL OR c.createdAt < :endTime) " +
+            "AND (:keyword IS NULL OR c.content LIKE :keyword) " +
+            "AND (:cursorTime IS NULL OR c.createdAt < :cursorTime OR (c.createdAt = :cursorTime AND c.id < :cursorId)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentAdminResponse> searchForAdmin(@Param("approved") Boolean approved,
+                                              @Param("articleId") Long articleId,
+                                              @Param("startTime") LocalDateTime startTime,
+                                              @Param("endTime") LocalDateTime endTime,
+                                              @Param("keyword") String keyword,
+                                              @Param("cursorTime") LocalDateTime cursorTime,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+
+    /**
+     * 与 searchForAdmin 相同筛选条件下的总数
+     */
+    @Query("SELECT COUNT(c) FROM Comment c " +
+            "WHERE (:approved IS NULL OR c.approved = :approved) " +
+            "AND (:articleId IS NULL OR c.article.id = :articleId) " +
+            "AND (:startTime IS NULL OR c.createdAt >= :startTime) " +
+            "AND (:endTime IS NULL OR c.createdAt < :endTime) " +
+            "AND (:keyword IS NULL OR c.content LIKE :keyword)")
+    long countForAdmin(@Param("approved") Boolean approved,
+                       @Param("articleId") Long articleId,
+                       @Param("startTime") LocalDateTime startTime,
+                       @Param("endTime") LocalDateTime endTime,
+                       @Param("keyword") String keyword);
+
+    // ========== 批量审核 / 删除 ==========
+
+    /**
+     * 待审核评论（JOIN FETCH 文章、评论者、父评论及其作者，审核通过后发送通知用，一次查询）
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.article LEFT JOIN FETCH c.user " +
+            "LEFT JOIN FETCH c.parent p LEFT JOIN FETCH p.user " +
+            "WHERE c.id IN :ids AND c.approved = false")
+    List<Comment> findUnapprovedWithDetails(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量审核通过（单条 UPDATE）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Comment c SET c.approved = true, c.moderationReason = NULL WHERE c.id IN :ids AND c.approved = false")
+    int approveByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 子评论ID（删除时逐层收集整棵子树）
+     */
+    @Query("SELECT c.id FROM Comment c WHERE c.parent.id IN :parentIds")
+    List<Long> findChildIds(@Param("parentIds") Collection<Long> parentIds);
+
+    /**
+     * 断开待删除评论之间的父子引用，使随后的单条 DELETE 不受自引用外键的删除顺序影响
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Comment c SET c.parent = NULL WHERE c.id IN :ids AND c.parent IS NOT NULL")
+    int detachParents(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量删除（单条 DELETE）
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 根据审核状态获取评论
      */
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,6 +19,23 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.recipientId = :userId OR n.recipientId IS NULL ORDER BY n.createdAt DESC")
     Page<Notification> findByRecipientIdOrBroadcast(@Param("userId") Long userId, Pageable pageable);
 
+    /** 游标分页第一页：用户的通知（含全站广播），不执行 COUNT */
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :userId OR n.recipientId IS NULL " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findLatestByRecipientIdOrBroadcast(@Param("userId") Long userId, Pageable pageable);
+
+    /** 游标分页：取 (createdAt, id) 严格小于游标的通知 */
+    @Query("SELECT n FROM Notification n WHERE (n.recipientId = :userId OR n.recipientId IS NULL) " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findByRecipientIdOrBroadcastBefore(@Param("userId") Long userId,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") Long id, Pageable pageable);
+
+    /** 统计用户的通知总数（含全站广播） */
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipientId = :userId OR n.recipientId IS NULL")
+    long countByRecipientIdOrBroadcast(@Param("userId") Long userId);
+
     /** 查询用户的未读通知数 */
     @Query("SELECT COUNT(n) FROM Notification n WHERE (n.recipientId = :userId OR n.recipientId IS NULL) AND n.isRead = false")
     long countUnreadByUserId(@Param("userId") Long userId);
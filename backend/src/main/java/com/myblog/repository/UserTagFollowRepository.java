@@ -1,7 +1,10 @@
 package com.myblog.repository;
 
 import com.myblog.entity.UserTagFollow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,9 +14,21 @@ public interface UserTagFollowRepository extends JpaRepository<UserTagFollow, Lo
 
     boolean existsByUserIdAndTagId(Long userId, Long tagId);
 
-    void deleteByUserIdAndTagId(Long userId, Long tagId);
+    long deleteByUserIdAndTagId(Long userId, Long tagId);
 
     List<UserTagFollow> findByUserId(Long userId);
 
     List<UserTagFollow> findByTagId(Long tagId);
+
+    /**
+     * 键集分页：id 大于 afterId 的下一批关注记录，返回 [id, userId, tagId]（冷启动流式加载用）
+     */
+    @Query("SELECT f.id, f.userId, f.tagId FROM UserTagFollow f WHERE f.id > :afterId ORDER BY f.id")
+    List<Object[]> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 当前最大 id（与 count 一起作为关注关系版本指纹）
+     */
+    @Query("SELECT COALESCE(MAX(f.id), 0) FROM UserTagFollow f")
+    Long findMaxId();
 }
@@ -0,0 +1,256 @@
+package com.myblog.service;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import cn.hutool.core.util.StrUtil;
+import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.entity.Article;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * 文章近似重复检测 — SimHash + LSH 分桶
+ *
+ * 核心思路：
+ * 1. 正文去格式化后切成 3 字符 shingle，按词频加权计算 64 位 SimHash
+ * 2. 64 位切成 4 段（每段 16 位），每段值作为一个 LSH 桶：
+ *    article:simhash:band:{段号}:{段值} → SET(articleId)
+ * 3. 鸽巢原理：海明距离 ≤ 3 的两个指纹，4 段中至少有 1 段完全相同，
+ *    因此只需查 4 个桶即可召回全部候选，无需扫描 articles 表
+ * 4. 候选指纹从 HASH article:simhash 一次 HMGET 取回，逐个算海明距离
+ *
+ * 查询成本：1 次 Pipeline（4×SMEMBERS）+ 1 次 HMGET，亚毫秒级
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArticleDuplicateService {
+
+    /** 分段数：阈值 < BANDS 时召回率 100% */
+    private static final int BANDS = 4;
+    private static final int BAND_BITS = 64 / BANDS;
+    private static final long BAND_MASK = (1L << BAND_BITS) - 1;
+
+    /** shingle 长度（字符级，兼容中英文混排） */
+    private static final int SHINGLE_SIZE = 3;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /** 判定为近似重复的海明距离阈值 */
+    @Value("${blog.duplicate.hamming-threshold:3}")
+    private int hammingThreshold;
+
+    /**
+     * 计算指纹、查找近似重复并写入索引
+     *
+     * 检测结果直接写回实体（simHash / duplicateOfId / duplicateDistance），
+     * 由调用方所在事务落库；Redis 索引在事务提交后才更新，回滚不会留下幽灵条目，
+     * Redis 异常不影响文章保存。
+     * - 指纹未变（只改标题 / 分类等）时不重新检测，保留原结果和管理员的"忽略"操作
+     * - 只和比自己早创建的文章（id 更小）比较，编辑原文不会被标成后来副本的重复
+     * - 正文归一化后为空时不检测、不入索引，并清空 simHash
+     */
+    public void detectAndIndex(Article article) {
+        Long articleId = article.getId();
+        Long oldHash = article.getSimHash();
+
+        // 空白正文（如空草稿）没有指纹：否则所有空文章的指纹都是 0，互相判为距离 0 的重复
+        if (normalize(article.getContent()).isEmpty()) {
+            if (oldHash != null) {
+                article.setSimHash(null);
+                article.setDuplicateOfId(null);
+                article.setDuplicateDistance(null);
+                remove(articleId, oldHash);
+            }
+            return;
+        }
+
+        long newHash = simHash(article.getContent());
+        if (oldHash != null && oldHash == newHash) return;
+
+        article.setSimHash(newHash);
+        article.setDuplicateOfId(null);
+        article.setDuplicateDistance(null);
+        try {
+            long[] nearest = findNearest(articleId, newHash);
+            if (nearest != null) {
+                article.setDuplicateOfId(nearest[0]);
+                article.setDuplicateDistance((int) nearest[1]);
+                log.warn("[Duplicate] 文章[{}] 疑似与文章[{}] 重复，海明距离={}",
+                        articleId, nearest[0], nearest[1]);
+            }
+        } catch (Exception e) {
+            log.warn("SimHash 近似重复检测失败: {}", e.getMessage());
+        }
+
+        afterCommit(() -> {
+            if (oldHash != null) {
+                removeFromBands(articleId, oldHash);
+            }
+            index(articleId, newHash);
+        }, "SimHash 索引更新失败");
+    }
+
+    /**
+     * 从 LSH 索引中移除文章（删除文章时调用，事务提交后执行）
+     */
+    public void remove(Long articleId, Long hash) {
+        if (articleId == null || hash == null) return;
+        afterCommit(() -> {
+            removeFromBands(articleId, hash);
+            stringRedisTemplate.opsForHash().delete(RedisKeyPrefix.ARTICLE_SIMHASH, articleId.toString());
+        }, "SimHash 索引移除失败");
+    }
+
+    /**
+     * 有事务时注册为提交后执行，否则立即执行；Redis 异常只记录日志
+     */
+    private void afterCommit(Runnable action, String failureMessage) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("{}: {}", failureMessage, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    /**
+     * 写入 LSH 索引（Pipeline 一次提交）
+     */
+    public void index(Long articleId, long hash) {
+        String member = articleId.toString();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.hSet(RedisKeyPrefix.ARTICLE_SIMHASH, member, Long.toString(hash));
+            for (int band = 0; band < BANDS; band++) {
+                conn.sAdd(bandKey(band, hash), member);
+            }
+            return null;
+        });
+    }
+
+    // ========== 内部方法 ==========
+
+    /**
+     * 查找距离最近的近似重复文章
+     *
+     * @return [articleId, distance]，无命中返回 null
+     */
+    private long[] findNearest(Long selfId, long hash) {
+        List<Object> bandMembers = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int band = 0; band < BANDS; band++) {
+                conn.sMembers(bandKey(band, hash));
+            }
+            return null;
+        });
+
+        Set<String> candidates = new LinkedHashSet<>();
+        for (Object members : bandMembers) {
+            if (members instanceof Collection<?> c) {
+                c.forEach(m -> candidates.add(m.toString()));
+            }
+        }
+        if (selfId != null) {
+            // 只和更早创建的文章比较：先有的是原文，后来的才是重复
+            candidates.removeIf(id -> Long.parseLong(id) >= selfId);
+        }
+        if (candidates.isEmpty()) return null;
+
+        List<String> ids = new ArrayList<>(candidates);
+        List<Object> hashes = stringRedisTemplate.opsForHash()
+                .multiGet(RedisKeyPrefix.ARTICLE_SIMHASH, new ArrayList<>(ids));
+
+        long[] nearest = null;
+        for (int i = 0; i < ids.size(); i++) {
+            Object value = hashes.get(i);
+            if (value == null) continue;
+            int distance = Long.bitCount(hash ^ Long.parseLong(value.toString()));
+            if (distance <= hammingThreshold && (nearest == null || distance < nearest[1])) {
+                nearest = new long[]{Long.parseLong(ids.get(i)), distance};
+            }
+        }
+        return nearest;
+    }
+
+    private void removeFromBands(Long articleId, long hash) {
+        String member = articleId.toString();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int band = 0; band < BANDS; band++) {
+                conn.sRem(bandKey(band, hash), member);
+            }
+            return null;
+        });
+    }
+
+    private String bandKey(int band, long hash) {
+        long value = (hash >>> (band * BAND_BITS)) & BAND_MASK;
+        return RedisKeyPrefix.ARTICLE_SIMHASH_BAND + band + ":" + Long.toHexString(value);
+    }
+
+    /**
+     * 64 位 SimHash（shingle 词频加权）
+     */
+    static long simHash(String content) {
+        String text = normalize(content);
+        if (text.isEmpty()) return 0L;
+
+        Map<String, Integer> shingles = new HashMap<>();
+        if (text.length() <= SHINGLE_SIZE) {
+            shingles.put(text, 1);
+        } else {
+            for (int i = 0; i + SHINGLE_SIZE <= text.length(); i++) {
+                shingles.merge(text.substring(i, i + SHINGLE_SIZE), 1, Integer::sum);
+            }
+        }
+
+        int[] vector = new int[64];
+        for (Map.Entry<String, Integer> entry : shingles.entrySet()) {
+            long h = MurmurHash.hash64(entry.getKey());
+            int weight = entry.getValue();
+            for (int bit = 0; bit < 64; bit++) {
+                vector[bit] += ((h >>> bit) & 1L) == 1L ? weight : -weight;
+            }
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (vector[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 去掉 Markdown/HTML 标记、空白与标点，统一小写
+     * 使排版微调（换行、加粗、标点）不影响指纹
+     */
+    private static String normalize(String content) {
+        if (StrUtil.isBlank(content)) return "";
+        return content
+                .replaceAll("<[^>]+>", "")
+                .replaceAll("[\\p{Punct}\\p{IsPunctuation}\\s]+", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
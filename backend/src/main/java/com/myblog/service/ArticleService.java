@@ -1,7 +1,6 @@
 package com.myblog.service;
 
 import com.myblog.common.constant.RedisKeyPrefix;
-import com.myblog.common.exception.BusinessException;
 import com.myblog.common.redis.CacheClient;
 import com.myblog.dto.ArchiveResponse;
 import com.myblog.dto.ArticleRequest;
@@ -13,7 +12,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RBloomFilter;
-import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -21,7 +19,8 @@ import org.springframework.cache.annotation.Caching;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
@@ -47,10 +46,13 @@ public class ArticleService {
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
     private final CommentRepository commentRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
     private final StringRedisTemplate stringRedisTemplate;
     private final CacheClient cacheClient;
     private final RedissonClient redissonClient;
+    private final ArticleDuplicateService articleDuplicateService;
+    private final LikeStorageService likeStorageService;
+    private final ArticleStatsService articleStatsService;
+    private final TrendingService trendingService;
 
     @org.springframework.beans.factory.annotation.Autowired
     @org.springframework.context.annotation.Lazy
@@ -62,6 +64,9 @@ public class ArticleService {
     private FeedService feedService;
 
     // ========== Lua 脚本：点赞 Toggle ==========
+    /** 连点去重窗口：同一访客对同一文章 500ms 内的重复点击只生效一次 */
+    private static final long LIKE_DEDUPE_WINDOW_MS = 500;
+
     private static final DefaultRedisScript<List<Long>> LIKE_TOGGLE_SCRIPT;
     static {
         LIKE_TOGGLE_SCRIPT = new DefaultRedisScript<>();
@@ -111,9 +116,7 @@ public class ArticleService {
     @Cacheable(value = "popularArticles", key = "#limit")
     public List<ArticleResponse> getPopularArticles(int limit) {
         log.info("[Cache MISS] 热门文章(limit={}) - 从数据库加载", limit);
-        return articleRepository.findTopByViewCount(Pageable.ofSize(limit)).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(articleRepository.findTopByViewCount(Pageable.ofSize(limit)));
     }
 
     /**
@@ -143,6 +146,24 @@ public class ArticleService {
         return result;
     }
 
+    /**
+     * 批量获取文章详情（Feed / 榜单用），保持输入顺序，已删除的文章跳过
+     *
+     * 一次 MGET 读缓存，未命中的一次 IN 查询 + 批量组装，一次 Pipeline 回写（见 CacheClient.queryMany）
+     */
+    public List<ArticleResponse> getArticles(List<Long> ids) {
+        return cacheClient.queryMany(
+                RedisKeyPrefix.ARTICLE_DETAIL, ids, ArticleResponse.class,
+                this::getArticlesFromDb, 30L, TimeUnit.MINUTES
+        );
+    }
+
+    /** 从 DB 批量加载文章详情（供 CacheClient.queryMany 回调使用） */
+    private Map<Long, ArticleResponse> getArticlesFromDb(List<Long> ids) {
+        return toResponses(articleRepository.findAllByIdIn(ids)).stream()
+                .collect(Collectors.toMap(ArticleResponse::getId, r -> r));
+    }
+
     /** 从 DB 加载文章详情（供 CacheClient 回调使用） */
     private ArticleResponse getArticleFromDb(Long id) {
         return articleRepository.findById(id)
@@ -158,29 +179,23 @@ public class ArticleService {
      */
     public ArticleResponse getArticleAndIncrementView(Long id, HttpServletRequest request) {
         // ① PV: 浏览量在Redis中累加
-        String viewKey = RedisKeyPrefix.ARTICLE_VIEW_COUNT + id;
-        redisTemplate.opsForValue().increment(viewKey);
+        incrementViewCount(id);
 
-        String todayKey = RedisKeyPrefix.DAILY_VIEW_COUNT
-                + LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
-        redisTemplate.opsForValue().increment(todayKey);
-
-        // ② UV: HyperLogLog PFADD（文章级）
+        // ② UV: HyperLogLog PFADD（文章级 + 全站日级 + 文章日/月级时序，一次 Pipeline）
         String fingerprint = generateFingerprint(request, getCurrentUser());
-        stringRedisTemplate.opsForHyperLogLog().add(
-                RedisKeyPrefix.ARTICLE_UV + id, fingerprint
-        );
-
-        // ③ UV: HyperLogLog PFADD（全站日级）
-        stringRedisTemplate.opsForHyperLogLog().add(
-                RedisKeyPrefix.STATS_UV_DAILY + LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE),
-                fingerprint
-        );
-
-        // ④ 获取文章详情
+        String siteDailyKey = RedisKeyPrefix.STATS_UV_DAILY + LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.pfAdd(RedisKeyPrefix.ARTICLE_UV + id, fingerprint);
+            conn.pfAdd(siteDailyKey, fingerprint);
+            articleStatsService.pipelineRecordVisitor(conn, id, fingerprint);
+            return null;
+        });
+
+        // ③ 获取文章详情
         ArticleResponse response = self.getArticle(id);
 
-        // ⑤ 附加 UV 数
+        // ④ 附加 UV 数
         Long uvCount = stringRedisTemplate.opsForHyperLogLog().size(
                 RedisKeyPrefix.ARTICLE_UV + id
         );
@@ -191,12 +206,27 @@ public class ArticleService {
 
     /** 向下兼容：无 request 参数的 getArticleAndIncrementView */
     public ArticleResponse getArticleAndIncrementView(Long id) {
+        incrementViewCount(id);
+        return self.getArticle(id);
+    }
+
+    /**
+     * PV 计数（一次 Pipeline）：文章计数器 INCR + 登记脏集合 + 全站日 PV INCR + 文章小时桶
+     * 脏集合供 ViewCountSyncTask 增量同步，避免 KEYS 扫描；另记一次实时热度事件（进程内累加）
+     */
+    private void incrementViewCount(Long id) {
         String viewKey = RedisKeyPrefix.ARTICLE_VIEW_COUNT + id;
-        redisTemplate.opsForValue().increment(viewKey);
         String todayKey = RedisKeyPrefix.DAILY_VIEW_COUNT
                 + LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
-        redisTemplate.opsForValue().increment(todayKey);
-        return self.getArticle(id);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.incr(viewKey);
+            conn.sAdd(RedisKeyPrefix.ARTICLE_VIEW_DIRTY, id.toString());
+            conn.incr(todayKey);
+            articleStatsService.pipelineRecord(conn, id, ArticleStatsService.Metric.VIEWS, 1);
+            return null;
+        });
+        trendingService.record(id, TrendingService.Event.VIEW);
     }
 
     /**
@@ -236,6 +266,9 @@ public class ArticleService {
 
         Article savedArticle = articleRepository.save(article);
 
+        // 近似重复检测（SimHash + LSH），结果随事务落库
+        articleDuplicateService.detectAndIndex(savedArticle);
+
         // 同步布隆过滤器
         if (Boolean.TRUE.equals(savedArticle.getPublished())) {
             try {
@@ -275,6 +308,7 @@ public class ArticleService {
             && currentUser.getRole() != User.Role.ADMIN) {
             throw new RuntimeException("无权修改此文章");
         }
+        boolean wasPublished = Boolean.TRUE.equals(article.getPublished());
 
         article.setTitle(request.getTitle());
         article.setSummary(request.getSummary());
@@ -298,6 +332,23 @@ public class ArticleService {
             article.setPublishedAt(LocalDateTime.now());
         }
 
+        // 正文可能变化 → 重新计算指纹并更新 LSH 桶
+        articleDuplicateService.detectAndIndex(article);
+        trendingService.evictDimensions(id);
+
+        // 撤回 / 重新发布 → 同步 Feed 墓碑
+        try {
+            boolean nowPublished = Boolean.TRUE.equals(article.getPublished());
+            if (wasPublished && !nowPublished) {
+                feedService.tombstone(article);
+                trendingService.remove(article);
+            } else if (!wasPublished && nowPublished) {
+                feedService.revive(article);
+            }
+        } catch (Exception e) {
+            log.warn("Feed 墓碑同步失败: {}", e.getMessage());
+        }
+
         return toResponse(articleRepository.save(article));
     }
 
@@ -321,10 +372,16 @@ public class ArticleService {
         }
 
         articleRepository.delete(article);
+        articleDuplicateService.remove(id, article.getSimHash());
+        try {
+            feedService.tombstone(article);
+            trendingService.remove(article);
+        } catch (Exception e) {
+            log.warn("Feed 墓碑登记失败: {}", e.getMessage());
+        }
 
         // 清理 Redis 相关 Key
-        stringRedisTemplate.delete(RedisKeyPrefix.ARTICLE_LIKED + id);
-        stringRedisTemplate.delete(RedisKeyPrefix.ARTICLE_LIKE_COUNT + id);
+        likeStorageService.deleteAll(id);
         stringRedisTemplate.delete(RedisKeyPrefix.ARTICLE_UV + id);
         stringRedisTemplate.delete(RedisKeyPrefix.ARTICLE_DETAIL + id);
         stringRedisTemplate.delete(RedisKeyPrefix.ARTICLE_DETAIL_LOGIC + id);
@@ -344,6 +401,40 @@ public class ArticleService {
             // fallback to DB value
         }
 
+        return toResponse(article, likeCount, commentRepository.countByArticle(article));
+    }
+
+    /**
+     * 批量组装：点赞数一次 MGET，评论数一次 GROUP BY，替代逐条 toResponse 的 2 次查询
+     */
+    public List<ArticleResponse> toResponses(List<Article> articles) {
+        if (articles.isEmpty()) return Collections.emptyList();
+
+        List<Long> ids = articles.stream().map(Article::getId).collect(Collectors.toList());
+        List<String> likeCounts = null;
+        try {
+            likeCounts = stringRedisTemplate.opsForValue().multiGet(ids.stream()
+                    .map(id -> RedisKeyPrefix.ARTICLE_LIKE_COUNT + id)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            // fallback to DB value
+        }
+        Map<Long, Long> commentCounts = new HashMap<>();
+        for (Object[] row : commentRepository.countByArticleIds(ids)) {
+            commentCounts.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<ArticleResponse> result = new ArrayList<>(articles.size());
+        for (int i = 0; i < articles.size(); i++) {
+            Article article = articles.get(i);
+            String redisCount = likeCounts != null ? likeCounts.get(i) : null;
+            int likeCount = redisCount != null ? Integer.parseInt(redisCount) : article.getLikeCount();
+            result.add(toResponse(article, likeCount, commentCounts.getOrDefault(article.getId(), 0L)));
+        }
+        return result;
+    }
+
+    private ArticleResponse toResponse(Article article, int likeCount, long commentCount) {
         return ArticleResponse.builder()
                 .id(article.getId())
                 .title(article.getTitle())
@@ -370,7 +461,7 @@ public class ArticleService {
                         .collect(Collectors.toList()))
                 .viewCount(article.getViewCount())
                 .likeCount(likeCount)
-                .commentCount(commentRepository.countByArticle(article))
+                .commentCount(commentCount)
                 .published(article.getPublished())
                 .featured(article.getFeatured())
                 .publishedAt(article.getPublishedAt())
@@ -448,52 +539,105 @@ public class ArticleService {
     // ========== 一人一赞系统 ==========
 
     /**
-     * Toggle 点赞/取消（Redisson 分布式锁 + Lua 原子操作）
+     * Toggle 点赞/取消（Lua 原子操作，一次往返）
      * visitorId: 登录用户为 userId，游客为 anon:ipHash
+     *
+     * 脚本在 Redis 内原子执行，不再需要外层分布式锁；
+     * 双击等连点由脚本内的 SET NX PX 短窗口去重，窗口内的重复请求直接返回当前状态。
+     * 点赞关系按访客类型落在位图或游客指纹集合，见 LikeStorageService。
      */
     public LikeResponseDTO toggleLike(Long articleId, String visitorId) {
-        RLock lock = redissonClient.getLock(RedisKeyPrefix.LOCK_LIKE + visitorId);
-        boolean isLocked = false;
-        try {
-            isLocked = lock.tryLock(1, 5, TimeUnit.SECONDS);
-            if (!isLocked) {
-                throw new BusinessException("操作太频繁，请稍后重试");
-            }
+        List<Long> result = executeLikeToggle(articleId, visitorId);
+        if (result != null && result.get(2) == 2L) {
+            // 计数器或成员结构缺失（Redis 被清空 / 淘汰）：从 article_likes 重建后重试一次
+            likeStorageService.rehydrate(Collections.singletonList(articleId));
+            result = executeLikeToggle(articleId, visitorId);
+        }
+        if (result != null && result.get(2) == 0L) {
+            articleStatsService.record(articleId, ArticleStatsService.Metric.LIKES, result.get(0) == 1L ? 1 : -1);
+            trendingService.record(articleId, result.get(0) == 1L ? TrendingService.Event.LIKE : TrendingService.Event.UNLIKE);
+        }
 
-            List<Long> result = stringRedisTemplate.execute(
-                    LIKE_TOGGLE_SCRIPT,
-                    Arrays.asList(
-                            RedisKeyPrefix.ARTICLE_LIKED + articleId,
-                            RedisKeyPrefix.ARTICLE_LIKE_COUNT + articleId
-                    ),
-                    visitorId
-            );
+        LikeResponseDTO dto = new LikeResponseDTO();
+        dto.setLiked(result != null && result.get(0) == 1L);
+        dto.setLikeCount(result != null ? result.get(1).intValue() : 0);
+        return dto;
+    }
 
-            LikeResponseDTO dto = new LikeResponseDTO();
-            dto.setLiked(result != null && result.get(0) == 1L);
-            dto.setLikeCount(result != null ? result.get(1).intValue() : 0);
-            return dto;
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new BusinessException("点赞操作被中断");
-        } finally {
-            if (isLocked && lock.isHeldByCurrentThread()) {
-                lock.unlock();
-            }
-        }
+    private List<Long> executeLikeToggle(Long articleId, String visitorId) {
+        LikeStorageService.LikeSlot slot = likeStorageService.slot(articleId, visitorId);
+        return stringRedisTemplate.execute(
+                LIKE_TOGGLE_SCRIPT,
+                Arrays.asList(
+                        slot.key(),
+                        RedisKeyPrefix.ARTICLE_LIKE_COUNT + articleId,
+                        RedisKeyPrefix.ARTICLE_LIKE_DIRTY,
+                        RedisKeyPrefix.ARTICLE_LIKE_DIRTY_SINCE,
+                        RedisKeyPrefix.LIKE_DEDUPE + visitorId + ":" + articleId,
+                        RedisKeyPrefix.ARTICLE_LIKE_EVENTS,
+                        RedisKeyPrefix.ARTICLE_LIKE_PENDING + articleId
+                ),
+                slot.member(), articleId.toString(), String.valueOf(System.currentTimeMillis()),
+                String.valueOf(LIKE_DEDUPE_WINDOW_MS), slot.mode(), visitorId
+        );
     }
 
     /**
      * 查询当前访客是否已赞
      */
     public boolean isLiked(Long articleId, String visitorId) {
-        return Boolean.TRUE.equals(
-                stringRedisTemplate.opsForSet().isMember(
-                        RedisKeyPrefix.ARTICLE_LIKED + articleId,
-                        visitorId
-                )
-        );
+        return likeStorageService.isLiked(articleId, visitorId);
+    }
+
+    /**
+     * 批量查询点赞状态（列表页用，一次 Pipeline：每篇文章 GETBIT/SISMEMBER + GET 计数）
+     * Redis 中计数器或成员结构缺失的文章，批量从 article_likes 重建后用一次 Pipeline 补查点赞状态
+     *
+     * @return articleId → 点赞状态（保持入参顺序）
+     */
+    public Map<Long, LikeResponseDTO> getLikeStatuses(List<Long> articleIds, String visitorId) {
+        List<Long> ids = articleIds.stream().distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) return Collections.emptyMap();
+
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long id : ids) {
+                likeStorageService.pipelineIsLiked(conn, id, visitorId);
+                conn.get(RedisKeyPrefix.ARTICLE_LIKE_COUNT + id);
+                conn.exists(likeStorageService.slot(id, visitorId).key());
+            }
+            return null;
+        });
+
+        Map<Long, LikeResponseDTO> statuses = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Object count = replies.get(i * 3 + 1);
+            // 计数器或成员结构任一缺失都需要重建（LRU 可能只淘汰其中一个）
+            if (count == null || !Boolean.TRUE.equals(replies.get(i * 3 + 2))) missing.add(ids.get(i));
+            statuses.put(ids.get(i), LikeResponseDTO.builder()
+                    .liked(Boolean.TRUE.equals(replies.get(i * 3)))
+                    .likeCount(count != null ? Integer.parseInt(count.toString()) : 0)
+                    .build());
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Integer> counts = likeStorageService.rehydrate(missing);
+            List<Long> rehydrated = new ArrayList<>(counts.keySet());
+            List<Object> liked = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (Long id : rehydrated) {
+                    likeStorageService.pipelineIsLiked(conn, id, visitorId);
+                }
+                return null;
+            });
+            for (int i = 0; i < rehydrated.size(); i++) {
+                LikeResponseDTO status = statuses.get(rehydrated.get(i));
+                status.setLikeCount(counts.get(rehydrated.get(i)));
+                status.setLiked(Boolean.TRUE.equals(liked.get(i)));
+            }
+        }
+        return statuses;
     }
 
     /**
@@ -514,7 +658,7 @@ public class ArticleService {
     // ========== UV统计与热门榜 ==========
 
     /**
-     * 获取本周热门文章（基于 UV 排行）
+     * 获取本周热门文章（滚动 7 日 UV / 衰减热度排行，见 HotRankTask）
      */
     public List<ArticleResponse> getWeeklyHotArticles(int limit) {
         Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
@@ -525,17 +669,36 @@ public class ArticleService {
             return self.getPopularArticles(limit);
         }
 
-        List<ArticleResponse> result = new ArrayList<>();
-        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
-            Long articleId = Long.parseLong(Objects.requireNonNull(tuple.getValue()));
-            try {
-                ArticleResponse response = self.getArticle(articleId);
-                response.setUvCount(tuple.getScore() != null ? tuple.getScore().longValue() : 0L);
-                result.add(response);
-            } catch (Exception e) {
-                // 文章可能已删除，跳过
-            }
+        // 排名分可能是衰减热度分，展示用的 7 日 UV 单独存放
+        List<Long> ids = tuples.stream()
+                .map(tuple -> Long.parseLong(Objects.requireNonNull(tuple.getValue())))
+                .collect(Collectors.toList());
+        List<Object> uvs = stringRedisTemplate.opsForHash().multiGet(RedisKeyPrefix.ARTICLE_HOT_WEEKLY_UV,
+                ids.stream().map(String::valueOf).collect(Collectors.toList()));
+        Map<Long, Long> uvById = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Object uv = uvs.get(i);
+            uvById.put(ids.get(i), uv != null ? Long.parseLong(uv.toString()) : 0L);
         }
+
+        // 已删除的文章由 getArticles 跳过
+        List<ArticleResponse> result = getArticles(ids);
+        result.forEach(response -> response.setUvCount(uvById.get(response.getId())));
+        return result;
+    }
+
+    /**
+     * 实时热度榜（前向衰减，见 TrendingService）
+     *
+     * @param window     1h / 24h / 7d
+     * @param categoryId 分类榜（可空）
+     * @param tagId      标签榜（可空）
+     */
+    public List<ArticleResponse> getTrendingArticles(String window, Long categoryId, Long tagId, int limit) {
+        Map<Long, Double> scores = trendingService.top(TrendingService.Window.of(window), categoryId, tagId, limit);
+
+        List<ArticleResponse> result = getArticles(new ArrayList<>(scores.keySet()));
+        result.forEach(response -> response.setTrendingScore(scores.get(response.getId())));
         return result;
     }
 
@@ -0,0 +1,345 @@
+package com.myblog.service;
+
+import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.common.exception.BusinessException;
+import com.myblog.dto.admin.ArticleStatsResponse;
+import com.myblog.entity.ArticleStatsDaily;
+import com.myblog.entity.ArticleStatsMonthly;
+import com.myblog.repository.ArticleStatsDailyRepository;
+import com.myblog.repository.ArticleStatsMonthlyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 文章时序统计服务
+ *
+ * 三级存储：
+ * - 小时桶：Redis HASH ts:article:hour:{id}:{yyyyMMdd}，field = {指标}:{HH}，HINCRBY 写入
+ * - 日汇总：article_stats_daily 表，ArticleStatsCompactTask 每小时从小时桶汇总
+ * - 月汇总：article_stats_monthly 表，由日汇总 SUM + 月级 HyperLogLog 得出
+ *
+ * UV 不按小时统计：日 / 月各一个 HyperLogLog，避免 24 倍的 HLL 内存
+ *
+ * 保留策略（blog.stats.*）：小时桶按 TTL 过期，日 / 月表由汇总任务按天清理
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArticleStatsService {
+
+    public static final DateTimeFormatter DAY_KEY = DateTimeFormatter.BASIC_ISO_DATE;
+    public static final DateTimeFormatter MONTH_KEY = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /** 月级 HLL 保留天数：覆盖整月 + 月初汇总上月的余量 */
+    private static final long MONTHLY_UV_TTL_DAYS = 40;
+
+    /** 单次查询最多返回的桶数 */
+    private static final int MAX_POINTS = 1000;
+
+    /**
+     * 统计指标（field 前缀尽量短，小时桶 HASH 可走 listpack 编码）
+     */
+    public enum Metric {
+        VIEWS("v"), LIKES("l"), COMMENTS("c");
+
+        private final String field;
+
+        Metric(String field) {
+            this.field = field;
+        }
+
+        public String field(int hour) {
+            return field + ":" + (hour < 10 ? "0" + hour : String.valueOf(hour));
+        }
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ArticleStatsDailyRepository dailyRepository;
+    private final ArticleStatsMonthlyRepository monthlyRepository;
+
+    @Value("${blog.stats.hourly-retention-days:7}")
+    private int hourlyRetentionDays;
+
+    /** 日 UV 保留天数：需覆盖热门榜的滚动窗口（7 天）+ 1 天余量 */
+    @Value("${blog.stats.daily-uv-retention-days:8}")
+    private int dailyUvRetentionDays;
+
+    // ========== 写入 ==========
+
+    /**
+     * 记录一次指标变化（独立 Pipeline）
+     */
+    public void record(Long articleId, Metric metric, long delta) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            pipelineRecord((StringRedisConnection) connection, articleId, metric, delta);
+            return null;
+        });
+    }
+
+    /**
+     * 批量记录多篇文章的同一指标增量（一次 Pipeline）
+     */
+    public void recordAll(Map<Long, Long> deltas, Metric metric) {
+        if (deltas.isEmpty()) return;
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            deltas.forEach((articleId, delta) -> pipelineRecord(conn, articleId, metric, delta));
+            return null;
+        });
+    }
+
+    /**
+     * 在调用方的 Pipeline 中追加：小时桶 HINCRBY + 登记活跃文章 + 续期
+     */
+    public void pipelineRecord(StringRedisConnection conn, Long articleId, Metric metric, long delta) {
+        LocalDateTime now = LocalDateTime.now();
+        String day = now.format(DAY_KEY);
+        String hourKey = RedisKeyPrefix.TS_ARTICLE_HOUR + articleId + ":" + day;
+        String activeKey = RedisKeyPrefix.TS_ARTICLE_ACTIVE + day;
+        long ttl = TimeUnit.DAYS.toSeconds(hourlyRetentionDays);
+
+        conn.hIncrBy(hourKey, metric.field(now.getHour()), delta);
+        conn.expire(hourKey, ttl);
+        conn.sAdd(activeKey, articleId.toString());
+        conn.expire(activeKey, ttl);
+    }
+
+    /**
+     * 在调用方的 Pipeline 中追加：日 / 月 UV HyperLogLog PFADD
+     */
+    public void pipelineRecordVisitor(StringRedisConnection conn, Long articleId, String fingerprint) {
+        LocalDate today = LocalDate.now();
+        String dailyKey = RedisKeyPrefix.TS_ARTICLE_UV_DAILY + articleId + ":" + today.format(DAY_KEY);
+        String monthlyKey = RedisKeyPrefix.TS_ARTICLE_UV_MONTHLY + articleId + ":" + today.format(MONTH_KEY);
+
+        conn.pfAdd(dailyKey, fingerprint);
+        conn.expire(dailyKey, TimeUnit.DAYS.toSeconds(dailyUvRetentionDays));
+        conn.pfAdd(monthlyKey, fingerprint);
+        conn.expire(monthlyKey, TimeUnit.DAYS.toSeconds(MONTHLY_UV_TTL_DAYS));
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 区间查询：每种粒度只需一次 DB 查询或一次 Pipeline
+     *
+     * - hour：Pipeline 取区间内每天的小时桶 HASH（仅限小时桶保留期内）
+     * - day：一次查日表，今天 / 昨天用 Redis 实时数据覆盖（汇总任务每小时一次，有滞后）
+     * - month：一次查月表（滞后 ≤ 1 小时）
+     */
+    public ArticleStatsResponse query(Long articleId, LocalDate from, LocalDate to, String granularity) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("开始日期不能晚于结束日期");
+        }
+        List<ArticleStatsResponse.Point> points = switch (granularity) {
+            case "hour" -> queryHourly(articleId, from, to);
+            case "day" -> queryDaily(articleId, from, to);
+            case "month" -> queryMonthly(articleId, from, to);
+            default -> throw new BusinessException("不支持的粒度: " + granularity + "（可选 hour / day / month）");
+        };
+        return ArticleStatsResponse.builder()
+                .articleId(articleId)
+                .granularity(granularity)
+                .points(points)
+                .build();
+    }
+
+    private List<ArticleStatsResponse.Point> queryHourly(Long articleId, LocalDate from, LocalDate to) {
+        LocalDate earliest = LocalDate.now().minusDays(hourlyRetentionDays - 1L);
+        if (from.isBefore(earliest)) {
+            throw new BusinessException("小时粒度仅保留最近 " + hourlyRetentionDays + " 天，请改用 day 粒度");
+        }
+        List<LocalDate> days = daysBetween(from, to);
+        List<Map<String, String>> buckets = fetchHourBuckets(articleId, days);
+
+        DateTimeFormatter display = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+        List<ArticleStatsResponse.Point> points = new ArrayList<>(days.size() * 24);
+        for (int i = 0; i < days.size(); i++) {
+            Map<String, String> bucket = buckets.get(i);
+            for (int hour = 0; hour < 24; hour++) {
+                points.add(ArticleStatsResponse.Point.builder()
+                        .bucket(days.get(i).atTime(hour, 0).format(display))
+                        .views(parse(bucket.get(Metric.VIEWS.field(hour))))
+                        .likes(parse(bucket.get(Metric.LIKES.field(hour))))
+                        .comments(parse(bucket.get(Metric.COMMENTS.field(hour))))
+                        .build());
+            }
+        }
+        return points;
+    }
+
+    private List<ArticleStatsResponse.Point> queryDaily(Long articleId, LocalDate from, LocalDate to) {
+        List<LocalDate> days = daysBetween(from, to);
+        Map<LocalDate, ArticleStatsDaily> stored = dailyRepository
+                .findByArticleIdAndStatDateBetweenOrderByStatDate(articleId, from, to).stream()
+                .collect(Collectors.toMap(ArticleStatsDaily::getStatDate, Function.identity()));
+
+        // 尚未（完整）汇总的昨天 / 今天：以 Redis 小时桶为准
+        LocalDate today = LocalDate.now();
+        List<LocalDate> liveDays = days.stream()
+                .filter(d -> !d.isBefore(today.minusDays(1)) && !d.isAfter(today))
+                .collect(Collectors.toList());
+        Map<LocalDate, ArticleStatsDaily> live = new HashMap<>();
+        if (!liveDays.isEmpty()) {
+            List<ArticleStatsDaily> rows = aggregateDays(articleId, liveDays);
+            for (int i = 0; i < liveDays.size(); i++) live.put(liveDays.get(i), rows.get(i));
+        }
+
+        List<ArticleStatsResponse.Point> points = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            ArticleStatsDaily row = live.containsKey(day) ? live.get(day) : stored.get(day);
+            points.add(toPoint(day.toString(), row != null ? row.getViews() : 0L, row != null ? row.getUv() : 0L,
+                    row != null ? row.getLikes() : 0L, row != null ? row.getComments() : 0L));
+        }
+        return points;
+    }
+
+    private List<ArticleStatsResponse.Point> queryMonthly(Long articleId, LocalDate from, LocalDate to) {
+        YearMonth start = YearMonth.from(from);
+        YearMonth end = YearMonth.from(to);
+        Map<LocalDate, ArticleStatsMonthly> stored = monthlyRepository
+                .findByArticleIdAndStatMonthBetweenOrderByStatMonth(articleId, start.atDay(1), end.atDay(1)).stream()
+                .collect(Collectors.toMap(ArticleStatsMonthly::getStatMonth, Function.identity()));
+
+        List<ArticleStatsResponse.Point> points = new ArrayList<>();
+        for (YearMonth month = start; !month.isAfter(end); month = month.plusMonths(1)) {
+            ArticleStatsMonthly row = stored.get(month.atDay(1));
+            points.add(toPoint(month.toString(), row != null ? row.getViews() : 0L, row != null ? row.getUv() : 0L,
+                    row != null ? row.getLikes() : 0L, row != null ? row.getComments() : 0L));
+            if (points.size() > MAX_POINTS) {
+                throw new BusinessException("查询区间过大");
+            }
+        }
+        return points;
+    }
+
+    // ========== 供汇总任务使用 ==========
+
+    /**
+     * 一次 Pipeline 汇总若干天的小时桶 + 日 UV，返回与 days 一一对应的日统计（未持久化）
+     */
+    public List<ArticleStatsDaily> aggregateDays(Long articleId, List<LocalDate> days) {
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LocalDate day : days) {
+                conn.hGetAll(RedisKeyPrefix.TS_ARTICLE_HOUR + articleId + ":" + day.format(DAY_KEY));
+                conn.pfCount(RedisKeyPrefix.TS_ARTICLE_UV_DAILY + articleId + ":" + day.format(DAY_KEY));
+            }
+            return null;
+        });
+
+        List<ArticleStatsDaily> rows = new ArrayList<>(days.size());
+        for (int i = 0; i < days.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> bucket = (Map<String, String>) replies.get(i * 2);
+            Object uv = replies.get(i * 2 + 1);
+            rows.add(toDaily(articleId, days.get(i), bucket, uv != null ? ((Number) uv).longValue() : 0L));
+        }
+        return rows;
+    }
+
+    /**
+     * 一次 Pipeline 汇总多篇文章某一天的小时桶 + 日 UV
+     */
+    public List<ArticleStatsDaily> aggregateArticles(List<Long> articleIds, LocalDate day) {
+        String dayKey = day.format(DAY_KEY);
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long articleId : articleIds) {
+                conn.hGetAll(RedisKeyPrefix.TS_ARTICLE_HOUR + articleId + ":" + dayKey);
+                conn.pfCount(RedisKeyPrefix.TS_ARTICLE_UV_DAILY + articleId + ":" + dayKey);
+            }
+            return null;
+        });
+
+        List<ArticleStatsDaily> rows = new ArrayList<>(articleIds.size());
+        for (int i = 0; i < articleIds.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> bucket = (Map<String, String>) replies.get(i * 2);
+            Object uv = replies.get(i * 2 + 1);
+            rows.add(toDaily(articleIds.get(i), day, bucket, uv != null ? ((Number) uv).longValue() : 0L));
+        }
+        return rows;
+    }
+
+    // ========== 工具方法 ==========
+
+    private List<Map<String, String>> fetchHourBuckets(Long articleId, List<LocalDate> days) {
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LocalDate day : days) {
+                conn.hGetAll(RedisKeyPrefix.TS_ARTICLE_HOUR + articleId + ":" + day.format(DAY_KEY));
+            }
+            return null;
+        });
+        List<Map<String, String>> buckets = new ArrayList<>(days.size());
+        for (Object reply : replies) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> bucket = reply != null ? (Map<String, String>) reply : Collections.emptyMap();
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    private ArticleStatsDaily toDaily(Long articleId, LocalDate day, Map<String, String> bucket, long uv) {
+        long views = 0, likes = 0, comments = 0;
+        if (bucket != null) {
+            for (Map.Entry<String, String> entry : bucket.entrySet()) {
+                long value = Long.parseLong(entry.getValue());
+                switch (entry.getKey().charAt(0)) {
+                    case 'v' -> views += value;
+                    case 'l' -> likes += value;
+                    case 'c' -> comments += value;
+                    default -> { }
+                }
+            }
+        }
+        return ArticleStatsDaily.builder()
+                .articleId(articleId)
+                .statDate(day)
+                .views(views)
+                .uv(uv)
+                .likes(likes)
+                .comments(comments)
+                .build();
+    }
+
+    private List<LocalDate> daysBetween(LocalDate from, LocalDate to) {
+        long count = ChronoUnit.DAYS.between(from, to) + 1;
+        if (count > MAX_POINTS) {
+            throw new BusinessException("查询区间过大，最多 " + MAX_POINTS + " 天");
+        }
+        List<LocalDate> days = new ArrayList<>((int) count);
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) days.add(d);
+        return days;
+    }
+
+    private ArticleStatsResponse.Point toPoint(String bucket, Long views, Long uv, Long likes, Long comments) {
+        return ArticleStatsResponse.Point.builder()
+                .bucket(bucket)
+                .views(views)
+                .uv(uv)
+                .likes(likes)
+                .comments(comments)
+                .build();
+    }
+
+    private static long parse(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -18,6 +19,7 @@ import java.util.*;
  *   2. 手动清除缓存（按空间或全部）
  *   3. 缓存预热（启动时主动加载热点数据）
  *   4. Redis 信息查询
+ *   5. Write-Behind 同步任务指标（点赞数同步延迟、每轮变更数）
  * 
  * 面试亮点：
  *   - 缓存可观测性设计
@@ -30,6 +32,7 @@ import java.util.*;
 public class CacheService {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
     private final CacheManager cacheManager;
 
     /**
@@ -104,6 +107,53 @@ public class CacheService {
         return stats;
     }
 
+    /**
+     * 获取点赞数同步指标
+     *
+     * pendingArticles：当前脏集合大小（等待同步的文章数）
+     * currentLagMs：最早一次未同步变更距今的毫秒数
+     * lastChanged / lastLagMs / lastDurationMs：上一轮同步的变更文章数、延迟、耗时
+     */
+    public Map<String, Object> getLikeSyncStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        try {
+            Map<Object, Object> lastRun = stringRedisTemplate.opsForHash()
+                    .entries(RedisKeyPrefix.ARTICLE_LIKE_SYNC_STATS);
+            lastRun.forEach((k, v) -> stats.put(k.toString(), Long.parseLong(v.toString())));
+
+            Long pending = stringRedisTemplate.opsForSet().size(RedisKeyPrefix.ARTICLE_LIKE_DIRTY);
+            stats.put("pendingArticles", pending != null ? pending : 0L);
+
+            String since = stringRedisTemplate.opsForValue().get(RedisKeyPrefix.ARTICLE_LIKE_DIRTY_SINCE);
+            stats.put("currentLagMs", since != null ? System.currentTimeMillis() - Long.parseLong(since) : 0L);
+        } catch (Exception e) {
+            log.error("获取点赞同步指标失败", e);
+        }
+        return stats;
+    }
+
+    /**
+     * 获取热门榜重建指标
+     *
+     * lastSize / lastCandidates / lastShards：上一轮榜单规模、候选文章数、分片数
+     * lastScoreMs / lastWriteMs / lastDurationMs：打分、写入切换、总耗时
+     * currentSize：正式榜当前规模
+     */
+    public Map<String, Object> getHotRankStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        try {
+            Map<Object, Object> lastRun = stringRedisTemplate.opsForHash()
+                    .entries(RedisKeyPrefix.ARTICLE_HOT_WEEKLY_STATS);
+            lastRun.forEach((k, v) -> stats.put(k.toString(), Long.parseLong(v.toString())));
+
+            Long size = stringRedisTemplate.opsForZSet().zCard(RedisKeyPrefix.ARTICLE_HOT_WEEKLY);
+            stats.put("currentSize", size != null ? size : 0L);
+        } catch (Exception e) {
+            log.error("获取热门榜重建指标失败", e);
+        }
+        return stats;
+    }
+
     /**
      * 清除指定缓存空间
      */
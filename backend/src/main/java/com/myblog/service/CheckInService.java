@@ -1,130 +1,145 @@
 package com.myblog.service;
 
-import cn.hutool.core.util.BooleanUtil;
 import com.myblog.common.constant.RedisKeyPrefix;
 import com.myblog.common.exception.BusinessException;
 import com.myblog.dto.CheckInCalendarDTO;
+import com.myblog.dto.CheckInLeaderboardDTO;
 import com.myblog.dto.CheckInStatsDTO;
+import com.myblog.entity.User;
+import com.myblog.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 读者签到服务 — BitMap 实现
  *
  * 对标黑马点评签到系统：
- * - SETBIT：签到打卡
- * - BITCOUNT：本月签到天数
- * - BITFIELD GET：连续签到天数（逐位右移计数）
+ * - checkin.lua：SETBIT 签到（返回值去重）+ EXPIRE + BITCOUNT + 连续签到状态 + 排行榜，一次往返
+ * - 连续签到：HASH sign:streak:{userId} 增量维护 last / cur / best，跨月不清零，不依赖位图保留期
+ * - 统计 / 日历：一次 Pipeline（BITFIELD GET 整月位图 + HMGET 连续签到状态），其余在本地按位计算
+ * - 排行榜：当前连续榜（今天 + 昨天两个 ZSET）/ 最长连续榜，读取 O(log n + k)
+ * - 全站日活：签到同时写 sign:daily:{yyyyMMdd} 位图（offset=userId），由 DashboardService 做 DAU / 留存统计
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CheckInService {
 
+    /** 月度位图保留天数（仅用于日历展示，连续天数不依赖它） */
+    private static final long SIGN_KEY_TTL_SECONDS = TimeUnit.DAYS.toSeconds(400);
+
+    /** 全站日活位图保留天数（覆盖 MAU 窗口与 30 日留存） */
+    private static final long DAILY_KEY_TTL_SECONDS = TimeUnit.DAYS.toSeconds(62);
+
+    /** 当前连续榜按天分 Key，需至少保留到第二天结束 */
+    private static final long CURRENT_RANK_TTL_SECONDS = TimeUnit.DAYS.toSeconds(3);
+
+    /** 排行榜单次最多返回条数 */
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+
+    public static final DateTimeFormatter DAY_KEY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DefaultRedisScript<List<Long>> CHECK_IN_SCRIPT;
+    static {
+        CHECK_IN_SCRIPT = new DefaultRedisScript<>();
+        CHECK_IN_SCRIPT.setLocation(new ClassPathResource("scripts/checkin.lua"));
+        @SuppressWarnings("unchecked")
+        Class<List<Long>> resultType = (Class<List<Long>>) (Class<?>) List.class;
+        CHECK_IN_SCRIPT.setResultType(resultType);
+    }
+
+    /** 连续签到状态 */
+    private record Streak(int current, int best) {}
+
     private final StringRedisTemplate stringRedisTemplate;
+    private final UserRepository userRepository;
 
     /**
      * 执行签到
      */
     public CheckInStatsDTO checkIn(Long userId) {
         LocalDate today = LocalDate.now();
-        String key = getSignKey(userId, YearMonth.from(today));
-        int dayOfMonth = today.getDayOfMonth();
+        List<String> keys = Arrays.asList(
+                getSignKey(userId, YearMonth.from(today)),
+                RedisKeyPrefix.SIGN_STREAK + userId,
+                currentRankKey(today),
+                currentRankKey(today.minusDays(1)),
+                RedisKeyPrefix.SIGN_RANK_BEST,
+                RedisKeyPrefix.SIGN_DAILY + today.format(DAY_KEY));
 
-        // ① 检查今日是否已签到
-        Boolean alreadySigned = stringRedisTemplate.opsForValue().getBit(key, dayOfMonth);
-        if (BooleanUtil.isTrue(alreadySigned)) {
+        List<Long> result = stringRedisTemplate.execute(CHECK_IN_SCRIPT, keys,
+                String.valueOf(today.getDayOfMonth()), String.valueOf(SIGN_KEY_TTL_SECONDS),
+                String.valueOf(today.toEpochDay()), userId.toString(), String.valueOf(CURRENT_RANK_TTL_SECONDS),
+                String.valueOf(DAILY_KEY_TTL_SECONDS));
+        if (result == null || result.size() < 4) {
+            throw new BusinessException("签到失败，请稍后重试");
+        }
+        if (result.get(0) == 0) {
             throw new BusinessException("今日已签到");
         }
 
-        // ② 执行签到：SETBIT key dayOfMonth 1
-        stringRedisTemplate.opsForValue().setBit(key, dayOfMonth, true);
-
-        // ③ 设置 Key 过期时间 90 天
-        stringRedisTemplate.expire(key, 90, TimeUnit.DAYS);
-
-        // ④ 统计本月签到天数
-        int signCount = countSignDays(key);
-
-        // ⑤ 计算连续签到天数
-        int consecutiveDays = countConsecutiveDays(key, dayOfMonth);
-
-        // ⑥ 检查是否触发成就
-        String achievement = checkAchievement(consecutiveDays);
-
+        int consecutiveDays = result.get(2).intValue();
         return CheckInStatsDTO.builder()
-                .signCount(signCount)
+                .signCount(result.get(1).intValue())
                 .consecutiveDays(consecutiveDays)
+                .bestConsecutiveDays(result.get(3).intValue())
                 .signedToday(true)
-                .achievement(achievement)
+                .achievement(checkAchievement(consecutiveDays))
                 .build();
     }
 
     /**
-     * 获取签到统计
+     * 获取签到统计（一次 Pipeline）
      */
     public CheckInStatsDTO getStats(Long userId, YearMonth month) {
-        String key = getSignKey(userId, month);
-        int signCount = countSignDays(key);
+        List<Object> replies = loadMonth(userId, month);
+        long bits = monthBits(replies);
+        Streak streak = streak(replies);
 
         int consecutiveDays = 0;
         boolean signedToday = false;
         if (month.equals(YearMonth.now())) {
-            int dayOfMonth = LocalDate.now().getDayOfMonth();
-            consecutiveDays = countConsecutiveDays(key, dayOfMonth);
-            Boolean bit = stringRedisTemplate.opsForValue().getBit(key, dayOfMonth);
-            signedToday = BooleanUtil.isTrue(bit);
+            consecutiveDays = streak.current();
+            signedToday = isSigned(bits, month, LocalDate.now().getDayOfMonth());
         }
 
         return CheckInStatsDTO.builder()
-                .signCount(signCount)
+                .signCount(Long.bitCount(bits))
                 .consecutiveDays(consecutiveDays)
+                .bestConsecutiveDays(streak.best())
                 .signedToday(signedToday)
                 .build();
     }
 
     /**
-     * 获取某月的签到日历
+     * 获取某月的签到日历（一次 Pipeline）
      */
     public CheckInCalendarDTO getCalendar(Long userId, YearMonth month) {
-        String key = getSignKey(userId, month);
+        List<Object> replies = loadMonth(userId, month);
+        long bits = monthBits(replies);
         int totalDays = month.lengthOfMonth();
 
-        // 取整月位图
-        List<Long> results = stringRedisTemplate.opsForValue().bitField(
-                key,
-                BitFieldSubCommands.create()
-                        .get(BitFieldSubCommands.BitFieldType.unsigned(totalDays))
-                        .valueAt(1)
-        );
-
-        long num = (results != null && !results.isEmpty()) ? results.get(0) : 0;
-
-        // 解析每一天
         List<Integer> signedDays = new ArrayList<>();
-        for (int i = totalDays; i >= 1; i--) {
-            if ((num & 1) == 1) {
-                signedDays.add(i);
+        for (int day = 1; day <= totalDays; day++) {
+            if (isSigned(bits, month, day)) {
+                signedDays.add(day);
             }
-            num >>>= 1;
-        }
-        Collections.reverse(signedDays);
-
-        int consecutiveDays = 0;
-        if (month.equals(YearMonth.now())) {
-            consecutiveDays = countConsecutiveDays(key, LocalDate.now().getDayOfMonth());
         }
 
         return CheckInCalendarDTO.builder()
@@ -132,7 +147,91 @@ public class CheckInService {
                 .totalDays(totalDays)
                 .signedDays(signedDays)
                 .signCount(signedDays.size())
-                .consecutiveDays(consecutiveDays)
+                .consecutiveDays(month.equals(YearMonth.now()) ? streak(replies).current() : 0)
+                .build();
+    }
+
+    /**
+     * 连续签到排行榜
+     *
+     * current：今天、昨天两个 ZSET 各取前 limit 名归并（签到后会从昨天的榜移到今天的榜，两者不重叠），
+     *          我的名次 = 两个榜中分数更高的人数之和 + 1（两次 ZCOUNT）
+     * best：单个 ZSET，ZREVRANGE，我的名次 = ZSCORE + ZCOUNT 分数更高的人数 + 1
+     * 榜单与我的名次都采用并列排名（天数相同名次相同）
+     *
+     * @param type current / best
+     */
+    public CheckInLeaderboardDTO getLeaderboard(String type, int limit, Long userId) {
+        int size = Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE));
+        boolean current = !"best".equalsIgnoreCase(type);
+        LocalDate today = LocalDate.now();
+        ZSetOperations<String, String> zSet = stringRedisTemplate.opsForZSet();
+
+        List<ZSetOperations.TypedTuple<String>> top = new ArrayList<>();
+        Long myRank = null;
+        Integer myDays = null;
+        if (current) {
+            List<String> keys = List.of(currentRankKey(today), currentRankKey(today.minusDays(1)));
+            for (String key : keys) {
+                Set<ZSetOperations.TypedTuple<String>> tuples = zSet.reverseRangeWithScores(key, 0, size - 1);
+                if (tuples != null) top.addAll(tuples);
+            }
+            top.sort(Comparator.comparing(ZSetOperations.TypedTuple<String>::getScore,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+            if (top.size() > size) top = top.subList(0, size);
+
+            Streak streak = parseStreak(stringRedisTemplate.<String, String>opsForHash()
+                    .multiGet(RedisKeyPrefix.SIGN_STREAK + userId, List.of("last", "cur", "best")));
+            if (streak.current() > 0) {
+                long ahead = 0;
+                for (String key : keys) {
+                    Long count = zSet.count(key, streak.current() + 0.5, Double.POSITIVE_INFINITY);
+                    ahead += count != null ? count : 0;
+                }
+                myRank = ahead + 1;
+                myDays = streak.current();
+            }
+        } else {
+            Set<ZSetOperations.TypedTuple<String>> tuples =
+                    zSet.reverseRangeWithScores(RedisKeyPrefix.SIGN_RANK_BEST, 0, size - 1);
+            if (tuples != null) top.addAll(tuples);
+            Double score = zSet.score(RedisKeyPrefix.SIGN_RANK_BEST, userId.toString());
+            if (score != null) {
+                Long ahead = zSet.count(RedisKeyPrefix.SIGN_RANK_BEST, score + 0.5, Double.POSITIVE_INFINITY);
+                myRank = (ahead != null ? ahead : 0) + 1;
+                myDays = score.intValue();
+            }
+        }
+
+        List<Long> userIds = top.stream().map(t -> Long.parseLong(Objects.requireNonNull(t.getValue()))).toList();
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        // 并列排名（1, 2, 2, 4）：名次 = 天数严格更多的人数 + 1，与 myRank 的算法一致
+        List<CheckInLeaderboardDTO.Entry> list = new ArrayList<>(top.size());
+        long rank = 0;
+        Double previous = null;
+        for (int i = 0; i < top.size(); i++) {
+            Long id = userIds.get(i);
+            User user = users.get(id);
+            Double score = top.get(i).getScore();
+            if (i == 0 || !Objects.equals(score, previous)) {
+                rank = i + 1;
+                previous = score;
+            }
+            list.add(CheckInLeaderboardDTO.Entry.builder()
+                    .rank(rank)
+                    .userId(id)
+                    .nickname(user != null ? (user.getNickname() != null ? user.getNickname() : user.getUsername()) : null)
+                    .avatar(user != null ? user.getAvatar() : null)
+                    .days(score != null ? score.intValue() : 0)
+                    .build());
+        }
+
+        return CheckInLeaderboardDTO.builder()
+                .type(current ? "current" : "best")
+                .list(list)
+                .myRank(myRank)
+                .myDays(myDays)
                 .build();
     }
 
@@ -142,45 +241,54 @@ public class CheckInService {
         return RedisKeyPrefix.SIGN + userId + ":" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
     }
 
+    private String currentRankKey(LocalDate day) {
+        return RedisKeyPrefix.SIGN_RANK_CURRENT + day.format(DAY_KEY);
+    }
+
     /**
-     * BITCOUNT 统计本月签到天数
+     * 一次 Pipeline：BITFIELD key GET u{当月天数} 1（整月位图，第 1 天在最高位）+ HMGET 连续签到状态
      */
-    private int countSignDays(String key) {
-        Long count = stringRedisTemplate.execute(
-                (RedisCallback<Long>) connection ->
-                        connection.stringCommands().bitCount(key.getBytes())
-        );
-        return count != null ? count.intValue() : 0;
+    private List<Object> loadMonth(Long userId, YearMonth month) {
+        String key = getSignKey(userId, month);
+        String streakKey = RedisKeyPrefix.SIGN_STREAK + userId;
+        BitFieldSubCommands get = BitFieldSubCommands.create()
+                .get(BitFieldSubCommands.BitFieldType.unsigned(month.lengthOfMonth()))
+                .valueAt(1);
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.bitfield(key, get);
+            conn.hMGet(streakKey, "last", "cur", "best");
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private long monthBits(List<Object> replies) {
+        List<Long> results = (List<Long>) replies.get(0);
+        return (results != null && !results.isEmpty() && results.get(0) != null) ? results.get(0) : 0L;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Streak streak(List<Object> replies) {
+        return parseStreak((List<String>) replies.get(1));
     }
 
     /**
-     * 连续签到天数算法 — BITFIELD GET + 逐位右移
-     *
-     * 核心思路：
-     * 1. BITFIELD key GET u{dayOfMonth} 1 — 获取从第1天到今天的无符号整数
-     * 2. 逐位右移，统计末尾连续 1 的个数
+     * 解析 [last, cur, best]：最近一次签到早于昨天时当前连续已中断
      */
-    private int countConsecutiveDays(String key, int dayOfMonth) {
-        List<Long> results = stringRedisTemplate.opsForValue().bitField(
-                key,
-                BitFieldSubCommands.create()
-                        .get(BitFieldSubCommands.BitFieldType.unsigned(dayOfMonth))
-                        .valueAt(1)
-        );
-
-        if (results == null || results.isEmpty()) {
-            return 0;
+    private Streak parseStreak(List<String> values) {
+        if (values == null || values.size() < 3 || values.get(0) == null) {
+            return new Streak(0, 0);
         }
+        long last = Long.parseLong(values.get(0));
+        int cur = values.get(1) != null ? Integer.parseInt(values.get(1)) : 0;
+        int best = values.get(2) != null ? Integer.parseInt(values.get(2)) : 0;
+        boolean alive = last >= LocalDate.now().minusDays(1).toEpochDay();
+        return new Streak(alive ? cur : 0, best);
+    }
 
-        long num = results.get(0);
-        if (num == 0) return 0;
-
-        int count = 0;
-        while ((num & 1) == 1) {
-            count++;
-            num >>>= 1;
-        }
-        return count;
+    private boolean isSigned(long bits, YearMonth month, int day) {
+        return ((bits >>> (month.lengthOfMonth() - day)) & 1) == 1;
     }
 
     /**
@@ -0,0 +1,320 @@
+package com.myblog.service;
+
+import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.common.exception.BusinessException;
+import com.myblog.entity.BannedWord;
+import com.myblog.repository.BannedWordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 评论自动审核 — Aho-Corasick 多模式匹配 + 链接 / 灌水规则
+ *
+ * 核心思路：
+ * 1. 违禁词构建成 Aho-Corasick 自动机，评论正文只扫描一遍即可找出全部命中词，
+ *    复杂度 O(n + 命中数)，与词库大小无关
+ * 2. 扫描时同步统计链接数与最长连续重复字符，不额外遍历
+ * 3. 自动机不可变，放在 AtomicReference 中：重建在后台完成后一次 set() 换入，
+ *    读路径无锁，正在扫描的请求继续使用旧自动机
+ * 4. 多实例：管理员增删违禁词后 INCR 版本号，ModerationReloadTask 发现版本变化后重建
+ *
+ * 归一化：大小写折叠、全角转半角，跳过空白与标点（"违 禁*词" 同样命中）
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CommentModerationService {
+
+    private final BannedWordRepository bannedWordRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${blog.moderation.enabled:true}")
+    private boolean enabled;
+
+    /** 单条评论允许的最大链接数 */
+    @Value("${blog.moderation.max-links:2}")
+    private int maxLinks;
+
+    /** 同一字符连续出现超过该次数视为灌水 */
+    @Value("${blog.moderation.max-repeat:10}")
+    private int maxRepeat;
+
+    /** 单条评论最多报告的命中词数 */
+    private static final int MAX_HITS = 5;
+
+    private final AtomicReference<Automaton> automaton = new AtomicReference<>(Automaton.build(List.of()));
+
+    /** 本实例当前加载的词库版本 */
+    private volatile String loadedVersion;
+
+    /**
+     * 审核结果
+     *
+     * @param passed  是否自动通过
+     * @param reasons 未通过原因（命中的违禁词 / 规则）
+     */
+    public record Result(boolean passed, List<String> reasons) {}
+
+    // ========== 审核 ==========
+
+    public Result moderate(String content) {
+        if (!enabled || content == null || content.isEmpty()) {
+            return new Result(true, List.of());
+        }
+
+        Automaton current = automaton.get();
+        List<String> reasons = new ArrayList<>();
+        Scan scan = current.scan(content, MAX_HITS);
+        for (String word : scan.hits) {
+            reasons.add("违禁词:" + word);
+        }
+        if (scan.links > maxLinks) {
+            reasons.add("链接过多:" + scan.links);
+        }
+        if (scan.maxRun > maxRepeat) {
+            reasons.add("重复字符:" + scan.maxRun);
+        }
+        return new Result(reasons.isEmpty(), reasons);
+    }
+
+    // ========== 词库管理 ==========
+
+    public List<BannedWord> listWords() {
+        return bannedWordRepository.findAllByOrderByIdDesc();
+    }
+
+    /**
+     * 批量添加违禁词（已存在或归一化后为空的跳过），返回新增数量
+     */
+    public int addWords(Collection<String> words) {
+        int added = 0;
+        for (String raw : words) {
+            String word = raw != null ? raw.trim() : "";
+            if (Automaton.normalize(word).isEmpty() || bannedWordRepository.existsByWord(word)) continue;
+            bannedWordRepository.save(BannedWord.builder().word(word).build());
+            added++;
+        }
+        if (added > 0) publishChange();
+        return added;
+    }
+
+    public void deleteWord(Long id) {
+        if (!bannedWordRepository.existsById(id)) {
+            throw new BusinessException("违禁词不存在，id=" + id);
+        }
+        bannedWordRepository.deleteById(id);
+        publishChange();
+    }
+
+    /**
+     * 从 DB 重建自动机并原子换入
+     */
+    public int reload() {
+        String version = currentVersion();
+        List<String> words = bannedWordRepository.findAllWords();
+        long start = System.currentTimeMillis();
+        Automaton next = Automaton.build(words);
+        automaton.set(next);
+        loadedVersion = version;
+        log.info("[Moderation] 违禁词自动机已重建: {} 个词，{} 个状态，耗时 {} ms",
+                words.size(), next.size(), System.currentTimeMillis() - start);
+        return words.size();
+    }
+
+    /**
+     * 版本号变化时重建（其他实例修改了词库）
+     */
+    public void reloadIfChanged() {
+        if (!Objects.equals(currentVersion(), loadedVersion)) {
+            reload();
+        }
+    }
+
+    private void publishChange() {
+        try {
+            stringRedisTemplate.opsForValue().increment(RedisKeyPrefix.MODERATION_WORDS_VERSION);
+        } catch (Exception e) {
+            log.warn("[Moderation] 更新词库版本号失败，其他实例将延迟生效: {}", e.getMessage());
+        }
+        reload();
+    }
+
+    private String currentVersion() {
+        try {
+            return stringRedisTemplate.opsForValue().get(RedisKeyPrefix.MODERATION_WORDS_VERSION);
+        } catch (Exception e) {
+            return loadedVersion;
+        }
+    }
+
+    // ========== 自动机 ==========
+
+    /** 一次扫描的结果 */
+    private record Scan(List<String> hits, int links, int maxRun) {}
+
+    /**
+     * 不可变 Aho-Corasick 自动机
+     *
+     * 状态转移按字符排序后存成数组（二分查找），失配时沿 fail 指针回退；
+     * dict 指针直接指向 fail 链上最近的终止状态，输出命中词时不遍历整条 fail 链
+     */
+    static final class Automaton {
+
+        private final char[][] keys;
+        private final int[][] next;
+        private final int[] fail;
+        /** 以该状态结尾的词（-1 表示非终止状态） */
+        private final int[] output;
+        /** fail 链上最近的终止状态（-1 表示没有） */
+        private final int[] dict;
+        private final String[] words;
+
+        private Automaton(char[][] keys, int[][] next, int[] fail, int[] output, int[] dict, String[] words) {
+            this.keys = keys;
+            this.next = next;
+            this.fail = fail;
+            this.output = output;
+            this.dict = dict;
+            this.words = words;
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        static Automaton build(Collection<String> rawWords) {
+            // ① Trie
+            List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+            List<Integer> terminal = new ArrayList<>();
+            trie.add(new TreeMap<>());
+            terminal.add(-1);
+            List<String> words = new ArrayList<>();
+            for (String raw : rawWords) {
+                String word = normalize(raw);
+                if (word.isEmpty()) continue;
+                int state = 0;
+                for (int i = 0; i < word.length(); i++) {
+                    Integer child = trie.get(state).get(word.charAt(i));
+                    if (child == null) {
+                        child = trie.size();
+                        trie.add(new TreeMap<>());
+                        terminal.add(-1);
+                        trie.get(state).put(word.charAt(i), child);
+                    }
+                    state = child;
+                }
+                if (terminal.get(state) < 0) {
+                    terminal.set(state, words.size());
+                    words.add(raw.trim());
+                }
+            }
+
+            int n = trie.size();
+            char[][] keys = new char[n][];
+            int[][] next = new int[n][];
+            int[] output = new int[n];
+            for (int s = 0; s < n; s++) {
+                TreeMap<Character, Integer> children = trie.get(s);
+                keys[s] = new char[children.size()];
+                next[s] = new int[children.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> e : children.entrySet()) {
+                    keys[s][i] = e.getKey();
+                    next[s][i++] = e.getValue();
+                }
+                output[s] = terminal.get(s);
+            }
+
+            // ② BFS 计算 fail / dict 指针（父状态一定先于子状态出队）
+            int[] fail = new int[n];
+            int[] dict = new int[n];
+            Arrays.fill(dict, -1);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : next[0]) {
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                for (int i = 0; i < keys[s].length; i++) {
+                    char c = keys[s][i];
+                    int child = next[s][i];
+                    int f = fail[s];
+                    int target;
+                    while ((target = step(keys, next, f, c)) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[child] = Math.max(target, 0);
+                    dict[child] = output[fail[child]] >= 0 ? fail[child] : dict[fail[child]];
+                    queue.add(child);
+                }
+            }
+            return new Automaton(keys, next, fail, output, dict, words.toArray(new String[0]));
+        }
+
+        /**
+         * 扫描正文：匹配违禁词，同时统计链接数与最长连续重复字符
+         */
+        Scan scan(String text, int maxHits) {
+            Set<String> hits = new LinkedHashSet<>();
+            int state = 0;
+            int links = 0;
+            int run = 0;
+            int maxRun = 0;
+            char prev = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char raw = text.charAt(i);
+                run = raw == prev ? run + 1 : 1;
+                prev = raw;
+                if (run > maxRun) maxRun = run;
+                // "http..." 或不跟在 "//" 之后的 "www."（避免 https://www. 计两次）
+                if ((raw == 'h' || raw == 'H') && text.regionMatches(true, i, "http", 0, 4)
+                        || (raw == 'w' || raw == 'W') && text.regionMatches(true, i, "www.", 0, 4)
+                        && (i == 0 || text.charAt(i - 1) != '/')) {
+                    links++;
+                }
+
+                char c = normalize(raw);
+                if (c == 0 || hits.size() >= maxHits) continue;
+                int target;
+                while ((target = step(keys, next, state, c)) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                state = Math.max(target, 0);
+                for (int s = output[state] >= 0 ? state : dict[state]; s >= 0; s = dict[s]) {
+                    hits.add(words[output[s]]);
+                }
+            }
+            return new Scan(new ArrayList<>(hits), links, maxRun);
+        }
+
+        private static int step(char[][] keys, int[][] next, int state, char c) {
+            int i = Arrays.binarySearch(keys[state], c);
+            return i >= 0 ? next[state][i] : -1;
+        }
+
+        static String normalize(String word) {
+            if (word == null) return "";
+            StringBuilder sb = new StringBuilder(word.length());
+            for (int i = 0; i < word.length(); i++) {
+                char c = normalize(word.charAt(i));
+                if (c != 0) sb.append(c);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * 单字符归一化：全角转半角、转小写；空白与标点返回 0（扫描时跳过）
+         */
+        static char normalize(char c) {
+            if (c >= '！' && c <= '～') c = (char) (c - 0xFEE0);
+            if (!Character.isLetterOrDigit(c)) return 0;
+            return Character.toLowerCase(c);
+        }
+    }
+}
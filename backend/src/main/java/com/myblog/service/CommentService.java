@@ -1,5 +1,6 @@
 package com.myblog.service;
 
+import com.myblog.common.result.CursorPage;
 import com.myblog.dto.CommentRequest;
 import com.myblog.dto.CommentResponse;
 import com.myblog.dto.mq.CommentNotificationMessage;
@@ -10,12 +11,20 @@ import com.myblog.repository.ArticleRepository;
 import com.myblog.repository.CommentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,13 +35,111 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final ArticleRepository articleRepository;
     private final MQProducerService mqProducerService;
+    private final ArticleStatsService articleStatsService;
+    private final TrendingService trendingService;
+    private final CommentModerationService commentModerationService;
+    private final CacheManager cacheManager;
 
+    @org.springframework.beans.factory.annotation.Autowired
+    @org.springframework.context.annotation.Lazy
+    private CommentService self;
+
+    /**
+     * 按顶层评论分页（每个顶层评论带完整回复树）
+     *
+     * 评论树整篇缓存（commentTree），分页只是对缓存的顶层列表切片；
+     * 排序支持 createdAt 正序 / 倒序（默认倒序）
+     */
     public Page<CommentResponse> getCommentsByArticle(Long articleId, Pageable pageable) {
-        Article article = articleRepository.findById(articleId)
-                .orElseThrow(() -> new RuntimeException("文章不存在"));
-        
-        return commentRepository.findByArticleAndParentIsNullAndApprovedTrue(article, pageable)
-                .map(this::toResponseWithReplies);
+        if (!articleRepository.existsById(articleId)) {
+            throw new RuntimeException("文章不存在");
+        }
+
+        List<CommentResponse> threads = self.getCommentTree(articleId);
+        Sort.Order order = pageable.getSort().getOrderFor("createdAt");
+        if (order == null || order.isDescending()) {
+            threads = new ArrayList<>(threads);
+            Collections.reverse(threads);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), threads.size());
+        int to = Math.min(from + pageable.getPageSize(), threads.size());
+        return new PageImpl<>(threads.subList(from, to), pageable, threads.size());
+    }
+
+    /**
+     * 按顶层评论游标分页（createdAt 倒序）
+     *
+     * 缓存的顶层列表按 (createdAt, id) 正序，二分定位游标位置后向前取 size 条；
+     * 翻页期间有新评论也不会重复或漏读，总数来自缓存列表，无需 COUNT
+     */
+    public CursorPage<CommentResponse> getCommentsByCursor(Long articleId, String cursor, int size) {
+        if (!articleRepository.existsById(articleId)) {
+            throw new RuntimeException("文章不存在");
+        }
+
+        List<CommentResponse> threads = self.getCommentTree(articleId);
+        CursorPage.Key key = CursorPage.decode(cursor);
+        // 第一个 ≥ 游标的位置，之前的都严格早于游标
+        int end = threads.size();
+        if (key != null) {
+            int lo = 0, hi = threads.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                CommentResponse t = threads.get(mid);
+                int cmp = t.getCreatedAt().compareTo(key.createdAt());
+                if (cmp < 0 || (cmp == 0 && t.getId() < key.id())) lo = mid + 1;
+                else hi = mid;
+            }
+            end = lo;
+        }
+
+        List<CommentResponse> rows = new ArrayList<>(size + 1);
+        for (int i = end - 1; i >= 0 && rows.size() <= size; i--) {
+            rows.add(threads.get(i));
+        }
+        return CursorPage.of(rows, size, CommentResponse::getCreatedAt, CommentResponse::getId, t -> t)
+                .withTotal((long) threads.size());
+    }
+
+    /**
+     * 构建文章评论树（按时间正序的顶层评论列表）
+     *
+     * 一次查询取出全部已审核评论，O(n) 组装：
+     * ① 按时间正序遍历，挂到父评论的 replies 下（子评论一定晚于父评论，replies 天然有序）
+     * ② 逆序遍历累加回复总数（子节点先于父节点完成）
+     * 父评论未审核或已删除的回复不展示
+     */
+    @Cacheable(value = "commentTree", key = "#articleId")
+    public List<CommentResponse> getCommentTree(Long articleId) {
+        List<Comment> comments = commentRepository.findApprovedWithUserByArticleId(articleId);
+
+        Map<Long, CommentResponse> nodes = new HashMap<>(comments.size() * 2);
+        List<CommentResponse> ordered = new ArrayList<>(comments.size());
+        List<CommentResponse> threads = new ArrayList<>();
+        for (Comment comment : comments) {
+            CommentResponse node = toResponse(comment);
+            node.setReplies(new ArrayList<>());
+            node.setReplyCount(0);
+            nodes.put(node.getId(), node);
+            ordered.add(node);
+
+            if (node.getParentId() == null) {
+                threads.add(node);
+            } else {
+                CommentResponse parent = nodes.get(node.getParentId());
+                if (parent != null) parent.getReplies().add(node);
+            }
+        }
+
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            CommentResponse node = ordered.get(i);
+            CommentResponse parent = node.getParentId() != null ? nodes.get(node.getParentId()) : null;
+            if (parent != null) {
+                parent.setReplyCount(parent.getReplyCount() + 1 + node.getReplyCount());
+            }
+        }
+        return threads;
     }
 
     @Transactional
@@ -55,17 +162,42 @@ public class CommentService {
             comment.setParent(parentComment);
         }
 
+        // 自动审核：命中违禁词 / 规则的评论不展示，进入待审核队列
+        CommentModerationService.Result moderation = commentModerationService.moderate(request.getContent());
+        if (!moderation.passed()) {
+            comment.setApproved(false);
+            comment.setModerationReason(truncate(String.join("; ", moderation.reasons()), 500));
+        }
+
         Comment savedComment = commentRepository.save(comment);
+        evictCommentTree(articleId);
+        if (savedComment.getApproved()) {
+            onCommentPublished(savedComment, article, parentComment, user);
+        } else {
+            log.info("[Moderation] 评论[{}] 进入人工审核: {}", savedComment.getId(), savedComment.getModerationReason());
+        }
+
+        return toResponse(savedComment);
+    }
+
+    /**
+     * 评论对外可见后的统计与通知（自动审核通过时立即执行，否则在人工审核通过时执行）
+     */
+    private void onCommentPublished(Comment comment, Article article, Comment parentComment, User user) {
+        articleStatsService.record(article.getId(), ArticleStatsService.Metric.COMMENTS, 1);
+        trendingService.record(article.getId(), TrendingService.Event.COMMENT);
 
         // 发送评论通知到MQ（异步邮件通知）
         try {
-            sendCommentNotification(savedComment, article, parentComment, user);
+            sendCommentNotification(comment, article, parentComment, user);
         } catch (Exception e) {
             // MQ发送失败不影响评论创建
             log.error("发送评论通知消息失败", e);
         }
+    }
 
-        return toResponse(savedComment);
+    private static String truncate(String text, int maxLength) {
+        return text.length() > maxLength ? text.substring(0, maxLength) : text;
     }
 
     /**
@@ -101,17 +233,117 @@ public class CommentService {
         mqProducerService.sendCommentNotification(builder.build());
     }
 
+    /**
+     * 读者端删除评论
+     *
+     * 管理员连同回复整棵子树删除；普通用户只能删除自己发表的评论（游客评论只有管理员可删），
+     * 且评论已有回复时拒绝删除，避免连带删掉其他人的回复
+     */
     @Transactional
     public void deleteComment(Long id, User currentUser) {
         Comment comment = commentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("评论不存在"));
 
-        if (comment.getUser() != null && !comment.getUser().getId().equals(currentUser.getId()) 
-            && currentUser.getRole() != User.Role.ADMIN) {
+        if (currentUser == null) {
             throw new RuntimeException("无权删除此评论");
         }
+        if (currentUser.getRole() == User.Role.ADMIN) {
+            deleteComments(List.of(id));
+            return;
+        }
 
-        commentRepository.delete(comment);
+        if (comment.getUser() == null || !comment.getUser().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("无权删除此评论");
+        }
+        if (!commentRepository.findChildIds(List.of(id)).isEmpty()) {
+            throw new RuntimeException("该评论已有回复，无法删除");
+        }
+
+        deleteComments(List.of(id));
+    }
+
+    // ========== 管理端 ==========
+
+    /**
+     * 批量审核通过（单条也走这里）
+     *
+     * 一次 JOIN FETCH 取出待审核评论及通知所需关联，一条 UPDATE 完成审核；
+     * 随后按文章汇总补记评论统计、失效评论树缓存，并逐条发送评论通知（MQ 异步）
+     *
+     * @return 实际由待审核变为通过的评论数
+     */
+    @Transactional
+    public int approveComments(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return 0;
+        List<Comment> pending = commentRepository.findUnapprovedWithDetails(ids);
+        if (pending.isEmpty()) return 0;
+
+        int approved = commentRepository.approveByIds(pending.stream().map(Comment::getId).toList());
+        if (approved == 0) return 0;
+
+        Map<Long, Long> perArticle = pending.stream()
+                .collect(Collectors.groupingBy(c -> c.getArticle().getId(), Collectors.counting()));
+        perArticle.keySet().forEach(this::evictCommentTree);
+        articleStatsService.recordAll(perArticle, ArticleStatsService.Metric.COMMENTS);
+
+        for (Comment comment : pending) {
+            trendingService.record(comment.getArticle().getId(), TrendingService.Event.COMMENT);
+            try {
+                sendCommentNotification(comment, comment.getArticle(), comment.getParent(), comment.getUser());
+            } catch (Exception e) {
+                log.error("发送评论通知消息失败", e);
+            }
+        }
+        return approved;
+    }
+
+    /**
+     * 批量删除评论（管理端，单条删除也走这里），连同全部回复一起删除
+     *
+     * 逐层收集子树 ID（每层一次查询），先断开集合内的父子引用，再一条 DELETE 删除，
+     * 不加载实体，最后失效涉及文章的评论树缓存
+     *
+     * @return 删除的评论数（含回复）
+     */
+    @Transactional
+    public int deleteComments(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return 0;
+        Set<Long> subtree = new LinkedHashSet<>(ids);
+        Collection<Long> frontier = subtree;
+        while (!frontier.isEmpty()) {
+            frontier = commentRepository.findChildIds(frontier).stream()
+                    .filter(subtree::add)
+                    .toList();
+        }
+
+        Set<Long> articleIds = commentRepository.findArticleIds(subtree).stream()
+                .map(row -> (Long) row[1])
+                .collect(Collectors.toSet());
+        commentRepository.detachParents(subtree);
+        int deleted = commentRepository.deleteByIds(subtree);
+        articleIds.forEach(this::evictCommentTree);
+        return deleted;
+    }
+
+    /**
+     * 失效评论树缓存：在事务提交后执行
+     *
+     * 若在事务内就失效，提交前并发的 getCommentTree 会读到旧数据并重新缓存 30 分钟；
+     * 无事务时（直接调用）立即失效
+     */
+    private void evictCommentTree(Long articleId) {
+        Cache cache = cacheManager.getCache("commentTree");
+        if (cache == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(articleId);
+                }
+            });
+        } else {
+            cache.evict(articleId);
+        }
     }
 
     private CommentResponse toResponse(Comment comment) {
@@ -125,15 +357,9 @@ public class CommentService {
                         .avatar(comment.getUser().getAvatar())
                         .build() : null)
                 .guestName(comment.getGuestName())
+                .parentId(comment.getParent() != null ? comment.getParent().getId() : null)
+                .approved(comment.getApproved())
                 .createdAt(comment.getCreatedAt())
                 .build();
     }
-
-    private CommentResponse toResponseWithReplies(Comment comment) {
-        CommentResponse response = toResponse(comment);
-        response.setReplies(commentRepository.findByParentAndApprovedTrue(comment).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList()));
-        return response;
-    }
 }
@@ -3,69 +3,354 @@ package com.myblog.service;
 import com.myblog.common.constant.RedisKeyPrefix;
 import com.myblog.dto.ArticleResponse;
 import com.myblog.dto.ScrollResult;
+import com.myblog.dto.mq.FeedFanoutMessage;
 import com.myblog.entity.Article;
 import com.myblog.entity.Tag;
+import com.myblog.repository.ArticleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Feed 流服务 — ZSet 推模型 + 滚动分页
  *
  * 对标黑马点评 Feed 流：
- * - 发布文章时推送到关注者的 ZSet 收件箱（Push 模型）
- * - 查询时用 ZREVRANGEBYSCORE + lastTimestamp + offset 做滚动分页
+ * - 发布文章时推送到关注者的 ZSet 收件箱（Push 模型，经 MQ 异步分批扇出，见 runFanout）
+ * - 关注者过多的大标签改为拉模型：只写标签时间线，查询时与收件箱 k 路归并（见 mergeSources）
+ * - 查询时用 ZREVRANGEBYSCORE + lastTimestamp + offset 做滚动分页，跳过墓碑（已删除 / 撤回）文章
+ * - 关注标签时从标签时间线回填最近的文章
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FeedService {
 
+    /** 扇出任务状态 */
+    private static final String FANOUT_PENDING = "PENDING";
+    private static final String FANOUT_RUNNING = "RUNNING";
+    private static final String FANOUT_DONE = "DONE";
+
+    /** 已完成任务的检查点保留时间（供查询进度） */
+    private static final long FANOUT_JOB_TTL_SECONDS = 86400;
+
+    private static final DefaultRedisScript<List<Object>> PAGE_SCRIPT;
+    private static final DefaultRedisScript<Long> BACKFILL_SCRIPT;
+    static {
+        PAGE_SCRIPT = new DefaultRedisScript<>();
+        PAGE_SCRIPT.setLocation(new ClassPathResource("scripts/feed_page.lua"));
+        @SuppressWarnings("unchecked")
+        Class<List<Object>> resultType = (Class<List<Object>>) (Class<?>) List.class;
+        PAGE_SCRIPT.setResultType(resultType);
+
+        BACKFILL_SCRIPT = new DefaultRedisScript<>();
+        BACKFILL_SCRIPT.setLocation(new ClassPathResource("scripts/feed_backfill.lua"));
+        BACKFILL_SCRIPT.setResultType(Long.class);
+    }
+
     private final StringRedisTemplate stringRedisTemplate;
     private final ArticleService articleService;
+    private final ArticleRepository articleRepository;
+    private final MQProducerService mqProducerService;
+    private final RedissonClient redissonClient;
+
+    /** 每个用户收件箱保留的条目数（写入时裁剪） */
+    @Value("${blog.feed.inbox-size:500}")
+    private int inboxSize;
+
+    /** 关注者数达到该值的标签不再扇出，改为读时拉取其时间线 */
+    @Value("${blog.feed.big-tag-threshold:5000}")
+    private long bigTagThreshold;
+
+    /** 大标签时间线保留的条目数 */
+    @Value("${blog.feed.tag-timeline-size:1000}")
+    private int timelineSize;
+
+    /** 关注标签时回填的最近文章数 */
+    @Value("${blog.feed.backfill-size:20}")
+    private int backfillSize;
+
+    /** 扇出时每批（一次 SSCAN + 一次 Pipeline）处理的关注者数 */
+    @Value("${blog.feed.fanout-chunk-size:500}")
+    private int chunkSize;
 
     /**
-     * 文章发布后推送到关注者的 Feed 收件箱
+     * 文章发布后分发到 Feed（混合推拉）
+     *
+     * - 所有标签：写一次标签时间线 tag:timeline:{tagId}
+     * - 大标签（关注者 ≥ bigTagThreshold）：不扇出，关注者读 Feed 时拉取时间线
+     * - 其余标签：登记扇出任务，检查点 HASH + 一条 MQ 消息，由消费者异步推送
+     * 发布线程的开销只与标签数有关；异步推送量也以 标签数 × bigTagThreshold 为上限
+     *
+     * 检查点先于消息写入：即使消息发送失败，任务也会留在待处理集合中由恢复任务补发
      */
     public void pushToFollowers(Article article) {
         List<Tag> tags = article.getTags();
         if (tags == null || tags.isEmpty()) return;
 
-        // 收集所有关注了这些标签的用户（去重）
-        Set<String> allFollowers = new HashSet<>();
-        for (Tag tag : tags) {
-            Set<String> followers = stringRedisTemplate.opsForSet().members(
-                    RedisKeyPrefix.TAG_FOLLOWERS + tag.getId()
-            );
-            if (followers != null) {
-                allFollowers.addAll(followers);
+        long timestamp = article.getPublishedAt() != null
+                ? article.getPublishedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        String articleId = article.getId().toString();
+
+        List<Object> sizes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Tag tag : tags) {
+                conn.sCard(RedisKeyPrefix.TAG_FOLLOWERS + tag.getId());
             }
+            return null;
+        });
+        List<String> pushTags = new ArrayList<>();
+        List<String> pullTags = new ArrayList<>();
+        for (int i = 0; i < tags.size(); i++) {
+            Object size = sizes.get(i);
+            long followers = size != null ? ((Number) size).longValue() : 0L;
+            if (followers >= bigTagThreshold) pullTags.add(tags.get(i).getId().toString());
+            else if (followers > 0) pushTags.add(tags.get(i).getId().toString());
         }
 
-        if (allFollowers.isEmpty()) return;
+        // 每个标签都写时间线：大标签供读时拉取，其余标签供新关注者回填
+        addToTimelines(tags, articleId, timestamp);
+        if (!pullTags.isEmpty()) {
+            // 标签曾经是大标签就保留在集合中：其时间线上的文章没有推送过，读时仍需拉取
+            stringRedisTemplate.opsForSet().add(RedisKeyPrefix.TAG_BIG, pullTags.toArray(new String[0]));
+        }
+        if (pushTags.isEmpty()) return;
 
-        // 批量 ZADD 到每个用户的 Feed ZSet
-        long timestamp = article.getPublishedAt() != null
-                ? article.getPublishedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
-                : System.currentTimeMillis();
+        String jobKey = RedisKeyPrefix.FEED_FANOUT_JOB + article.getId();
+        long now = System.currentTimeMillis();
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.del(jobKey);
+            conn.hMSet(jobKey, Map.of(
+                    "status", FANOUT_PENDING,
+                    "tags", String.join(",", pushTags),
+                    "timestamp", String.valueOf(timestamp),
+                    "tagIndex", "0",
+                    "pushed", "0",
+                    "createdAt", String.valueOf(now)
+            ));
+            conn.zAdd(RedisKeyPrefix.FEED_FANOUT_PENDING, now, articleId);
+            return null;
+        });
+
+        mqProducerService.sendFeedFanout(FeedFanoutMessage.builder().articleId(article.getId()).build());
+    }
+
+    /**
+     * 执行扇出任务（FeedFanoutConsumer 调用）
+     *
+     * 逐个标签 SSCAN 关注者集合，每 chunkSize 人一批：Pipeline ZADD + ZREMRANGEBYRANK 裁剪收件箱，
+     * 每批结束更新检查点（pushed / 心跳），每个标签结束推进 tagIndex。
+     * 崩溃后重新投递时从 tagIndex 继续；当前标签从头重放，ZADD 幂等，不会产生重复条目。
+     * 同一用户关注了多个标签时也只是重复 ZADD 同一成员，无需在内存中去重。
+     *
+     * @return 本次推送的收件箱写入次数；任务不存在、已完成或正被其他线程执行时返回 -1
+     */
+    public long runFanout(Long articleId) {
+        RLock lock = redissonClient.getLock(RedisKeyPrefix.LOCK_FEED_FANOUT + articleId);
+        if (!lock.tryLock()) return -1;
+        try {
+            String jobKey = RedisKeyPrefix.FEED_FANOUT_JOB + articleId;
+            Map<Object, Object> job = stringRedisTemplate.opsForHash().entries(jobKey);
+            if (job.isEmpty() || FANOUT_DONE.equals(job.get("status"))) {
+                stringRedisTemplate.opsForZSet().remove(RedisKeyPrefix.FEED_FANOUT_PENDING, articleId.toString());
+                return -1;
+            }
+
+            String[] tagIds = job.get("tags").toString().split(",");
+            double timestamp = Double.parseDouble(job.get("timestamp").toString());
+            int tagIndex = Integer.parseInt(job.get("tagIndex").toString());
+            String member = articleId.toString();
+            stringRedisTemplate.opsForHash().put(jobKey, "status", FANOUT_RUNNING);
+
+            long pushed = 0;
+            List<String> chunk = new ArrayList<>(chunkSize);
+            for (int i = tagIndex; i < tagIds.length; i++) {
+                try (Cursor<String> cursor = stringRedisTemplate.opsForSet().scan(
+                        RedisKeyPrefix.TAG_FOLLOWERS + tagIds[i], ScanOptions.scanOptions().count(chunkSize).build())) {
+                    while (cursor.hasNext()) {
+                        chunk.add(cursor.next());
+                        if (chunk.size() >= chunkSize) {
+                            pushed += pushChunk(jobKey, chunk, member, timestamp);
+                            chunk.clear();
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    pushed += pushChunk(jobKey, chunk, member, timestamp);
+                    chunk.clear();
+                }
+                stringRedisTemplate.opsForHash().put(jobKey, "tagIndex", String.valueOf(i + 1));
+            }
+
+            long finishedAt = System.currentTimeMillis();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.hMSet(jobKey, Map.of("status", FANOUT_DONE, "finishedAt", String.valueOf(finishedAt)));
+                conn.expire(jobKey, FANOUT_JOB_TTL_SECONDS);
+                conn.zRem(RedisKeyPrefix.FEED_FANOUT_PENDING, member);
+                return null;
+            });
+            log.info("[Feed] 扇出完成: 文章[{}] → {} 次推送，耗时 {} ms", articleId, pushed,
+                    finishedAt - Long.parseLong(job.get("createdAt").toString()));
+            return pushed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 推送一批关注者（一次 Pipeline），并在同一 Pipeline 内更新检查点与心跳
+     */
+    private int pushChunk(String jobKey, List<String> userIds, String articleId, double timestamp) {
+        long now = System.currentTimeMillis();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                String feedKey = RedisKeyPrefix.FEED + userId;
+                conn.zAdd(feedKey, timestamp, articleId);
+                conn.zRemRange(feedKey, 0, -(inboxSize + 1));
+            }
+            conn.hIncrBy(jobKey, "pushed", userIds.size());
+            conn.hSet(jobKey, "updatedAt", String.valueOf(now));
+            conn.zAdd(RedisKeyPrefix.FEED_FANOUT_PENDING, now, articleId);
+            return null;
+        });
+        return userIds.size();
+    }
+
+    /**
+     * 补发停滞的扇出任务：心跳超过 staleMillis 未更新（消息丢失、进入死信或消费者崩溃）
+     *
+     * @return 补发的任务数
+     */
+    public int resendStaleFanouts(long staleMillis) {
+        Set<String> stale = stringRedisTemplate.opsForZSet().rangeByScore(
+                RedisKeyPrefix.FEED_FANOUT_PENDING, 0, System.currentTimeMillis() - staleMillis);
+        if (stale == null || stale.isEmpty()) return 0;
+
+        int resent = 0;
+        for (String articleId : stale) {
+            // 先刷新心跳，避免下一轮在消费前重复补发
+            stringRedisTemplate.opsForZSet().add(RedisKeyPrefix.FEED_FANOUT_PENDING, articleId, System.currentTimeMillis());
+            if (mqProducerService.sendFeedFanout(FeedFanoutMessage.builder().articleId(Long.parseLong(articleId)).build())) {
+                resent++;
+            }
+        }
+        return resent;
+    }
 
+    /**
+     * 查询扇出任务进度
+     *
+     * @return status / tags / tagIndex / pushed / createdAt / updatedAt / finishedAt；任务不存在或已过期时为空
+     */
+    public Map<String, Object> getFanoutProgress(Long articleId) {
+        Map<Object, Object> job = stringRedisTemplate.opsForHash().entries(RedisKeyPrefix.FEED_FANOUT_JOB + articleId);
+        Map<String, Object> progress = new LinkedHashMap<>();
+        job.forEach((field, value) -> progress.put(field.toString(), value));
+        return progress;
+    }
+
+    /**
+     * 关注标签后回填：把标签最近 backfillSize 篇文章并入收件箱（一次 Lua 调用）
+     * 大标签读时拉取，无需回填
+     *
+     * @return 新加入收件箱的条目数
+     */
+    public long backfill(Long userId, Long tagId) {
+        if (Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(RedisKeyPrefix.TAG_BIG, tagId.toString()))) {
+            return 0;
+        }
+        Long added = stringRedisTemplate.execute(BACKFILL_SCRIPT,
+                List.of(RedisKeyPrefix.FEED + userId, RedisKeyPrefix.TAG_TIMELINE + tagId, RedisKeyPrefix.FEED_TOMBSTONE),
+                String.valueOf(backfillSize), String.valueOf(inboxSize));
+        return added != null ? added : 0;
+    }
+
+    /**
+     * 文章删除 / 撤回：登记墓碑（queryFeed 读取时跳过），并从其标签时间线移除
+     * 收件箱中的条目不逐个清理，由读取时顺手删除
+     */
+    public void tombstone(Article article) {
         String articleId = article.getId().toString();
+        List<Tag> tags = article.getTags() != null ? article.getTags() : Collections.emptyList();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zAdd(RedisKeyPrefix.FEED_TOMBSTONE, System.currentTimeMillis(), articleId);
+            for (Tag tag : tags) {
+                conn.zRem(RedisKeyPrefix.TAG_TIMELINE + tag.getId(), articleId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 文章重新发布：移除墓碑，并按发布流程重新写入标签时间线、重新扇出
+     *
+     * 收件箱中的旧条目在读取 / 清理时已被移除，只删墓碑无法恢复，需重新推送；
+     * 推送按当前关注关系进行，ZADD 幂等，仍保留旧条目的收件箱不会重复
+     */
+    public void revive(Article article) {
+        stringRedisTemplate.opsForZSet().remove(RedisKeyPrefix.FEED_TOMBSTONE, article.getId().toString());
+        pushToFollowers(article);
+    }
+
+    /**
+     * 从 DB 重建缺失的标签时间线（Redis 数据丢失后冷启动用，已存在的时间线跳过）
+     *
+     * @return 重建的时间线数
+     */
+    public int rebuildTagTimelines(Collection<Long> tagIds) {
+        int rebuilt = 0;
+        for (Long tagId : tagIds) {
+            String timelineKey = RedisKeyPrefix.TAG_TIMELINE + tagId;
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(timelineKey))) continue;
 
-        for (String userId : allFollowers) {
-            stringRedisTemplate.opsForZSet().add(
-                    RedisKeyPrefix.FEED + userId,
-                    articleId,
-                    timestamp
-            );
+            List<Object[]> rows = articleRepository.findRecentPublishedByTagId(tagId, Pageable.ofSize(timelineSize));
+            if (rows.isEmpty()) continue;
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (Object[] row : rows) {
+                    LocalDateTime publishedAt = (LocalDateTime) row[1];
+                    conn.zAdd(timelineKey, publishedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                            row[0].toString());
+                }
+                return null;
+            });
+            rebuilt++;
         }
+        return rebuilt;
+    }
 
-        log.info("[Feed] 推送完成: 文章[{}] → {} 位用户", article.getId(), allFollowers.size());
+    private void addToTimelines(List<Tag> tags, String articleId, long timestamp) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Tag tag : tags) {
+                String timelineKey = RedisKeyPrefix.TAG_TIMELINE + tag.getId();
+                conn.zAdd(timelineKey, timestamp, articleId);
+                conn.zRemRange(timelineKey, 0, -(timelineSize + 1));
+            }
+            return null;
+        });
     }
 
     /**
@@ -78,14 +363,30 @@ public class FeedService {
     public ScrollResult<ArticleResponse> queryFeed(Long userId, Long lastTimestamp, Integer offset, Integer count) {
         String key = RedisKeyPrefix.FEED + userId;
 
-        Set<ZSetOperations.TypedTuple<String>> typedTuples = stringRedisTemplate.opsForZSet()
-                .reverseRangeByScoreWithScores(
-                        key,
-                        0,              // min
-                        lastTimestamp,   // max
-                        offset,          // offset
-                        count            // count
-                );
+        // 记录活跃时间（FeedCleanupTask 据此回收不活跃用户的收件箱）+ 用户关注的大标签（其时间线需要读时拉取）
+        // + 收件箱是否存在、关注的全部标签（收件箱被回收后重建用）
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zAdd(RedisKeyPrefix.FEED_ACTIVE, System.currentTimeMillis(), userId.toString());
+            conn.sInter(RedisKeyPrefix.FOLLOW_TAGS + userId, RedisKeyPrefix.TAG_BIG);
+            conn.exists(key);
+            conn.sMembers(RedisKeyPrefix.FOLLOW_TAGS + userId);
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        Set<String> bigTags = (Set<String>) replies.get(1);
+        @SuppressWarnings("unchecked")
+        Set<String> followedTags = (Set<String>) replies.get(3);
+        if (!Boolean.TRUE.equals(replies.get(2)) && followedTags != null && !followedTags.isEmpty()) {
+            rebuildInbox(userId, followedTags);
+        }
+
+        List<String> sources = new ArrayList<>();
+        sources.add(key);
+        if (bigTags != null) {
+            bigTags.forEach(tagId -> sources.add(RedisKeyPrefix.TAG_TIMELINE + tagId));
+        }
+        List<ZSetOperations.TypedTuple<String>> typedTuples = mergeSources(sources, lastTimestamp, offset, count);
 
         if (typedTuples == null || typedTuples.isEmpty()) {
             return new ScrollResult<>(Collections.emptyList(), null, null);
@@ -108,18 +409,75 @@ public class FeedService {
             }
         }
 
-        // 查询文章详情（保持顺序）
-        List<ArticleResponse> articles = articleIds.stream()
-                .map(id -> {
-                    try {
-                        return articleService.getArticle(id);
-                    } catch (Exception e) {
-                        return null; // 文章已删除，跳过
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        // 批量查询文章详情（保持顺序，已删除的文章跳过）
+        List<ArticleResponse> articles = articleService.getArticles(articleIds);
 
         return new ScrollResult<>(articles, minTime, sameScoreCount);
     }
+
+    /**
+     * 收件箱不存在（不活跃被 FeedCleanupTask 回收，或 Redis 数据丢失）时按关注的标签逐个回填
+     * 大标签在 backfill 中跳过，读时照常拉取时间线
+     */
+    private void rebuildInbox(Long userId, Set<String> tagIds) {
+        long added = 0;
+        for (String tagId : tagIds) {
+            added += backfill(userId, Long.parseLong(tagId));
+        }
+        if (added > 0) {
+            log.info("[Feed] 用户[{}] 收件箱已重建，回填 {} 条", userId, added);
+        }
+    }
+
+    /**
+     * k 路归并：收件箱 + 大标签时间线
+     *
+     * 一次 feed_page.lua 调用读取所有来源：每个来源取 offset + count 条存活条目（跳过墓碑并向后补足）。
+     * 合并去重后的第 p 条在其来源中的排名不超过 p，因此足以得到合并序列的前 offset + count 条。
+     * 排序与 ZREVRANGEBYSCORE 一致（score 降序，同分按 member 字典序降序），
+     * 合并序列是确定的，lastTimestamp + offset 的滚动游标语义与单 ZSet 时相同。
+     * 同一文章同时出现在多个来源时只保留一次。
+     */
+    private List<ZSetOperations.TypedTuple<String>> mergeSources(List<String> sources, long lastTimestamp,
+                                                                int offset, int count) {
+        int limit = offset + count;
+        List<String> keys = new ArrayList<>(sources.size() + 1);
+        keys.add(RedisKeyPrefix.FEED_TOMBSTONE);
+        keys.addAll(sources);
+        List<Object> replies = stringRedisTemplate.execute(PAGE_SCRIPT, keys,
+                String.valueOf(lastTimestamp), String.valueOf(limit));
+        if (replies == null) return Collections.emptyList();
+
+        Comparator<ZSetOperations.TypedTuple<String>> order = Comparator
+                .comparing((ZSetOperations.TypedTuple<String> t) -> Objects.requireNonNull(t.getScore()))
+                .thenComparing(t -> Objects.requireNonNull(t.getValue()))
+                .reversed();
+        // 堆中元素：{来源迭代器, 当前元素}
+        PriorityQueue<Map.Entry<Iterator<ZSetOperations.TypedTuple<String>>, ZSetOperations.TypedTuple<String>>> heap =
+                new PriorityQueue<>(sources.size(), Map.Entry.comparingByValue(order));
+        for (Object reply : replies) {
+            List<?> flat = (List<?>) reply;
+            if (flat.isEmpty()) continue;
+            List<ZSetOperations.TypedTuple<String>> tuples = new ArrayList<>(flat.size() / 2);
+            for (int i = 0; i < flat.size(); i += 2) {
+                tuples.add(new DefaultTypedTuple<>(flat.get(i).toString(), Double.parseDouble(flat.get(i + 1).toString())));
+            }
+            Iterator<ZSetOperations.TypedTuple<String>> it = tuples.iterator();
+            heap.add(new AbstractMap.SimpleEntry<>(it, it.next()));
+        }
+
+        List<ZSetOperations.TypedTuple<String>> merged = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        while (!heap.isEmpty() && merged.size() < limit) {
+            Map.Entry<Iterator<ZSetOperations.TypedTuple<String>>, ZSetOperations.TypedTuple<String>> head = heap.poll();
+            if (seen.add(head.getValue().getValue())) {
+                merged.add(head.getValue());
+            }
+            Iterator<ZSetOperations.TypedTuple<String>> it = head.getKey();
+            if (it.hasNext()) {
+                heap.add(new AbstractMap.SimpleEntry<>(it, it.next()));
+            }
+        }
+        return merged.size() > offset ? merged.subList(offset, merged.size()) : Collections.emptyList();
+    }
 }
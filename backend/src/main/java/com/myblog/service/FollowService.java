@@ -8,12 +8,20 @@ import com.myblog.repository.TagRepository;
 import com.myblog.repository.UserTagFollowRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -22,6 +30,7 @@ import java.util.stream.Collectors;
  *
  * 关注关系持久化到 MySQL（user_tag_follow 表），
  * 同时写入 Redis SET（双向索引），供 FeedService 实时查询。
+ * 双写时同步维护加载标记（follow:graph:meta 的 count / maxId），冷启动时据此判断 Redis 副本是否完整。
  */
 @Slf4j
 @Service
@@ -31,6 +40,15 @@ public class FollowService {
     private final StringRedisTemplate stringRedisTemplate;
     private final UserTagFollowRepository followRepository;
     private final TagRepository tagRepository;
+    private final FeedService feedService;
+    private final RedissonClient redissonClient;
+
+    private static final String GRAPH_LOADING = "LOADING";
+    private static final String GRAPH_READY = "READY";
+
+    /** 冷启动加载时每批读取 / Pipeline 写入的记录数 */
+    @Value("${blog.follow.load-batch-size:5000}")
+    private int loadBatchSize;
 
     /**
      * 关注标签
@@ -51,7 +69,7 @@ public class FollowService {
                 .userId(userId)
                 .tagId(tagId)
                 .build();
-        followRepository.save(follow);
+        follow = followRepository.save(follow);
 
         // 写入 Redis（双向索引）
         stringRedisTemplate.opsForSet().add(
@@ -60,6 +78,19 @@ public class FollowService {
         stringRedisTemplate.opsForSet().add(
                 RedisKeyPrefix.TAG_FOLLOWERS + tagId, userId.toString()
         );
+        stringRedisTemplate.opsForHash().increment(RedisKeyPrefix.FOLLOW_GRAPH_META, "count", 1);
+        stringRedisTemplate.opsForHash().put(RedisKeyPrefix.FOLLOW_GRAPH_META, "maxId", follow.getId().toString());
+        // 关注视为 Feed 活跃，避免新用户读 Feed 前收件箱被清理任务回收
+        stringRedisTemplate.opsForZSet().add(
+                RedisKeyPrefix.FEED_ACTIVE, userId.toString(), System.currentTimeMillis()
+        );
+
+        // 回填标签最近的文章，关注后 Feed 立即可见
+        try {
+            feedService.backfill(userId, tagId);
+        } catch (Exception e) {
+            log.warn("[Follow] Feed 回填失败: userId={}, tagId={}, {}", userId, tagId, e.getMessage());
+        }
 
         log.info("[Follow] 用户 {} 关注标签 {}", userId, tagId);
     }
@@ -69,7 +100,10 @@ public class FollowService {
      */
     @Transactional
     public void unfollowTag(Long userId, Long tagId) {
-        followRepository.deleteByUserIdAndTagId(userId, tagId);
+        long deleted = followRepository.deleteByUserIdAndTagId(userId, tagId);
+        if (deleted > 0) {
+            stringRedisTemplate.opsForHash().increment(RedisKeyPrefix.FOLLOW_GRAPH_META, "count", -deleted);
+        }
 
         stringRedisTemplate.opsForSet().remove(
                 RedisKeyPrefix.FOLLOW_TAGS + userId, tagId.toString()
@@ -111,4 +145,81 @@ public class FollowService {
         if (tagIds.isEmpty()) return Collections.emptyList();
         return tagRepository.findAllById(tagIds);
     }
+
+    /**
+     * 冷启动重建关注关系到 Redis（流式加载）
+     *
+     * - 版本指纹：DB 的 count + maxId 与加载标记一致且状态为 READY 时，说明 Redis 已是完整副本，直接跳过
+     *   （运行期的关注 / 取关会同步更新标记，重启不必重复加载）
+     * - 按 id 键集分页读取，每批一次 Pipeline 写入双向索引，内存占用只与批大小有关
+     * - 每批提交后记录 lastId，加载中途宕机时下一次从检查点继续（SADD 幂等）
+     *
+     * 只做 SADD：Redis 中多出的关系（如 Redis 不可用期间的取关）不会在这里清除
+     *
+     * @return 本次加载的记录数；跳过或其他节点正在加载时返回 0
+     */
+    public long loadFollowGraph() {
+        RLock lock = redissonClient.getLock(RedisKeyPrefix.LOCK_FOLLOW_GRAPH_LOAD);
+        if (!lock.tryLock()) {
+            log.info("[Follow] 其他节点正在加载关注关系，跳过");
+            return 0;
+        }
+        try {
+            Map<Object, Object> meta = stringRedisTemplate.opsForHash().entries(RedisKeyPrefix.FOLLOW_GRAPH_META);
+            long dbCount = followRepository.count();
+            long dbMaxId = followRepository.findMaxId();
+            if (GRAPH_READY.equals(meta.get("status"))
+                    && String.valueOf(dbCount).equals(meta.get("count"))
+                    && String.valueOf(dbMaxId).equals(meta.get("maxId"))) {
+                log.info("[Follow] Redis 关注关系与 DB 一致（{} 条），跳过重建", dbCount);
+                return 0;
+            }
+
+            long lastId = GRAPH_LOADING.equals(meta.get("status")) && meta.get("lastId") != null
+                    ? Long.parseLong(meta.get("lastId").toString()) : 0L;
+            if (lastId > 0) {
+                log.info("[Follow] 从检查点 id={} 继续加载关注关系", lastId);
+            }
+            stringRedisTemplate.opsForHash().put(RedisKeyPrefix.FOLLOW_GRAPH_META, "status", GRAPH_LOADING);
+
+            long start = System.currentTimeMillis();
+            long loaded = 0;
+            Pageable batch = Pageable.ofSize(loadBatchSize);
+            while (true) {
+                List<Object[]> rows = followRepository.findPageAfter(lastId, batch);
+                if (rows.isEmpty()) break;
+
+                String checkpoint = rows.get(rows.size() - 1)[0].toString();
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    for (Object[] row : rows) {
+                        conn.sAdd(RedisKeyPrefix.FOLLOW_TAGS + row[1], row[2].toString());
+                        conn.sAdd(RedisKeyPrefix.TAG_FOLLOWERS + row[2], row[1].toString());
+                    }
+                    conn.hSet(RedisKeyPrefix.FOLLOW_GRAPH_META, "lastId", checkpoint);
+                    return null;
+                });
+                lastId = Long.parseLong(checkpoint);
+                loaded += rows.size();
+                if (rows.size() < loadBatchSize) break;
+            }
+
+            // 指纹取加载结束时的值：加载期间的关注 / 取关已由双写同步到 Redis
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            long rate = loaded * 1000 / elapsed;
+            Map<String, String> ready = new HashMap<>();
+            ready.put("status", GRAPH_READY);
+            ready.put("count", String.valueOf(followRepository.count()));
+            ready.put("maxId", String.valueOf(followRepository.findMaxId()));
+            ready.put("loadedAt", String.valueOf(System.currentTimeMillis()));
+            ready.put("rate", String.valueOf(rate));
+            stringRedisTemplate.opsForHash().putAll(RedisKeyPrefix.FOLLOW_GRAPH_META, ready);
+            stringRedisTemplate.opsForHash().delete(RedisKeyPrefix.FOLLOW_GRAPH_META, "lastId");
+
+            log.info("[Follow] 关注关系重建完成: {} 条，耗时 {} ms，{} 条/秒", loaded, elapsed, rate);
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
 }
@@ -34,6 +34,7 @@ public class MQMonitorService {
         List<Map<String, Object>> queues = new ArrayList<>();
         queues.add(getQueueInfo(RabbitMQConfig.COMMENT_NOTIFICATION_QUEUE, "评论通知队列"));
         queues.add(getQueueInfo(RabbitMQConfig.LOG_QUEUE, "操作日志队列"));
+        queues.add(getQueueInfo(RabbitMQConfig.FEED_FANOUT_QUEUE, "Feed 扇出队列"));
         queues.add(getQueueInfo(RabbitMQConfig.DLX_QUEUE, "死信队列"));
         stats.put("queues", queues);
         
@@ -41,6 +42,7 @@ public class MQMonitorService {
         List<Map<String, Object>> exchanges = new ArrayList<>();
         exchanges.add(buildExchangeInfo(RabbitMQConfig.COMMENT_EXCHANGE, "direct", "评论通知交换机"));
         exchanges.add(buildExchangeInfo(RabbitMQConfig.LOG_EXCHANGE, "direct", "操作日志交换机"));
+        exchanges.add(buildExchangeInfo(RabbitMQConfig.FEED_EXCHANGE, "direct", "Feed 交换机"));
         exchanges.add(buildExchangeInfo(RabbitMQConfig.DLX_EXCHANGE, "topic", "死信交换机"));
         stats.put("exchanges", exchanges);
         
@@ -2,6 +2,7 @@ package com.myblog.service;
 
 import com.myblog.config.RabbitMQConfig;
 import com.myblog.dto.mq.CommentNotificationMessage;
+import com.myblog.dto.mq.FeedFanoutMessage;
 import com.myblog.dto.mq.LogMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -75,4 +76,29 @@ public class MQProducerService {
             log.error("[MQ生产者] 操作日志消息发送失败: messageId={}", message.getMessageId(), e);
         }
     }
+
+    /**
+     * 发送 Feed 扇出任务消息
+     *
+     * @param message Feed 扇出任务消息
+     * @return 是否发送成功（失败时任务仍在待处理集合中，由恢复任务补发）
+     */
+    public boolean sendFeedFanout(FeedFanoutMessage message) {
+        if (message.getMessageId() == null) {
+            message.setMessageId(UUID.randomUUID().toString());
+        }
+
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.FEED_EXCHANGE,
+                    RabbitMQConfig.FEED_FANOUT_ROUTING_KEY,
+                    message
+            );
+            return true;
+        } catch (Exception e) {
+            log.error("[MQ生产者] Feed 扇出消息发送失败: messageId={}, articleId={}",
+                    message.getMessageId(), message.getArticleId(), e);
+            return false;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.myblog.service;
 
+import com.myblog.common.result.CursorPage;
 import com.myblog.dto.NotificationResponse;
 import com.myblog.entity.Notification;
 import com.myblog.entity.Notification.NotificationType;
@@ -7,11 +8,13 @@ import com.myblog.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -105,6 +108,23 @@ public class NotificationService {
                 .map(NotificationResponse::fromEntity);
     }
 
+    /**
+     * 获取用户通知列表（游标分页，createdAt 倒序）
+     *
+     * 多查一条判断是否有下一页；withTotal=false 时不执行 COUNT
+     */
+    public CursorPage<NotificationResponse> getUserNotificationsByCursor(Long userId, String cursor,
+                                                                        int size, boolean withTotal) {
+        CursorPage.Key key = CursorPage.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Notification> rows = key == null
+                ? notificationRepository.findLatestByRecipientIdOrBroadcast(userId, limit)
+                : notificationRepository.findByRecipientIdOrBroadcastBefore(userId, key.createdAt(), key.id(), limit);
+        CursorPage<NotificationResponse> page = CursorPage.of(rows, size,
+                Notification::getCreatedAt, Notification::getId, NotificationResponse::fromEntity);
+        return withTotal ? page.withTotal(notificationRepository.countByRecipientIdOrBroadcast(userId)) : page;
+    }
+
     /**
      * 获取未读通知数
      */
@@ -0,0 +1,151 @@
+package com.myblog.service;
+
+import com.myblog.common.annotation.RateLimit;
+import com.myblog.common.aspect.RateLimitAspect;
+import com.myblog.common.constant.RedisKeyPrefix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 限流算法压测
+ *
+ * 对每种算法以固定速率（默认 10k rps）打到一组临时限流 Key 上，统计：
+ * - 单次限流判断延迟（p50 / p99 / max，包含网络往返）
+ * - 实际达到的吞吐与被限流次数
+ * - 压测结束时全部 Key 的 MEMORY USAGE 之和
+ * 临时 Key 使用独立前缀，测完按前缀 SCAN 删除，不影响业务限流数据
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateLimitBenchmarkService {
+
+    private static final String BENCH_PREFIX = RedisKeyPrefix.RATE_LIMIT + "bench:";
+
+    /** 压测并发线程数（需足以在往返延迟下维持目标速率） */
+    private static final int WORKER_THREADS = 32;
+
+    private final RateLimitAspect rateLimitAspect;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 依次压测三种算法
+     *
+     * @param rps           目标速率（请求/秒）
+     * @param seconds       每种算法的压测时长
+     * @param keys          限流 Key 数量（模拟的客户端数）
+     * @param maxRequests   每个 Key 窗口内允许的请求数
+     * @param windowSeconds 窗口大小（秒）
+     */
+    public List<Map<String, Object>> benchmark(int rps, int seconds, int keys, int maxRequests, int windowSeconds) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (RateLimit.Algorithm algorithm : RateLimit.Algorithm.values()) {
+            results.add(run(algorithm, rps, rps * seconds, keys, maxRequests, TimeUnit.SECONDS.toMillis(windowSeconds)));
+        }
+        return results;
+    }
+
+    private Map<String, Object> run(RateLimit.Algorithm algorithm, int rps, int total, int keys,
+                                    int maxRequests, long windowMillis) {
+        String prefix = BENCH_PREFIX + algorithm.name().toLowerCase() + ":" + UUID.randomUUID() + ":";
+        long[] latencies = new long[total];
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicLong blocked = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        double intervalNanos = 1_000_000_000.0 / rps;
+
+        ExecutorService pool = Executors.newFixedThreadPool(WORKER_THREADS);
+        long start = System.nanoTime();
+        try {
+            for (int t = 0; t < WORKER_THREADS; t++) {
+                pool.execute(() -> {
+                    int i;
+                    while ((i = sequence.getAndIncrement()) < total) {
+                        // 按发送计划匀速发压，落后时不等待（延迟统计不含排队时间）
+                        long due = start + (long) (i * intervalNanos);
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) LockSupport.parkNanos(wait);
+
+                        long begin = System.nanoTime();
+                        try {
+                            List<Long> result = rateLimitAspect.tryAcquire(algorithm, prefix + (i % keys), maxRequests, windowMillis);
+                            if (result != null && !result.isEmpty() && result.get(0) == 1) blocked.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("algorithm", algorithm.name());
+        row.put("requests", total);
+        row.put("targetRps", rps);
+        row.put("actualRps", Math.round(total / (elapsedNanos / 1_000_000_000.0)));
+        row.put("blocked", blocked.get());
+        row.put("errors", errors.get());
+
+        Arrays.sort(latencies);
+        row.put("p50Micros", latencies[(int) (total * 0.50)] / 1000);
+        row.put("p99Micros", latencies[Math.min(total - 1, (int) (total * 0.99))] / 1000);
+        row.put("maxMicros", latencies[total - 1] / 1000);
+
+        try {
+            List<String> written = scanKeys(prefix);
+            long bytes = 0;
+            for (String key : written) {
+                Long usage = stringRedisTemplate.execute((RedisCallback<Long>) connection -> memoryUsage(connection, key));
+                if (usage != null) bytes += usage;
+            }
+            row.put("redisKeys", written.size());
+            row.put("bytes", bytes);
+            row.put("bytesPerLimitKey", String.format("%.1f", (double) bytes / keys));
+            if (!written.isEmpty()) stringRedisTemplate.delete(written);
+        } catch (Exception e) {
+            log.warn("[RateLimitBenchmark] 统计内存失败: {}", e.getMessage());
+        }
+        return row;
+    }
+
+    private List<String> scanKeys(String prefix) {
+        List<String> keys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
+
+    private Long memoryUsage(RedisConnection connection, String key) {
+        Object reply = connection.execute("MEMORY",
+                "USAGE".getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8),
+                "SAMPLES".getBytes(StandardCharsets.UTF_8),
+                "0".getBytes(StandardCharsets.UTF_8));
+        return reply instanceof Number n ? n.longValue() : null;
+    }
+}
@@ -0,0 +1,313 @@
+package com.myblog.service;
+
+import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.common.exception.BusinessException;
+import com.myblog.entity.Article;
+import com.myblog.entity.Tag;
+import com.myblog.repository.ArticleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * 实时热度服务（Trending Now）
+ *
+ * 事件流：ArticleService / CommentService 在浏览、点赞、评论时调用 record()，
+ * 只在进程内累加到 ConcurrentHashMap（O(1)，不访问 Redis）；
+ * TrendingTask 每秒 flush() 一次，把这一秒内的增量用一次 trending_incr.lua 合并进 Redis ZSET。
+ *
+ * 打分：前向衰减（见 trending_incr.lua），三个窗口 1h / 24h / 7d 的平均寿命即窗口长度；
+ * 每个窗口维护全站榜 + 分类榜 + 标签榜，每榜只保留前 MAX_RANK_SIZE 名。
+ *
+ * 整个过程没有周期性全量扫描：写入成本与事件数成正比，
+ * 仅在 λ·(now - epoch) 过大时由 rescale() 原地缩放一次（每个窗口几十个寿命周期才一次）。
+ * 每个榜单有独立的 epoch，脚本涉及的 Key 全部通过 KEYS 传入，重置可以分批进行。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingService {
+
+    /** 每个榜单保留的文章数 */
+    private static final int MAX_RANK_SIZE = 500;
+
+    /** λ·(now - epoch) 超过该值时重置基准，e^30 ≈ 1e13，远离 double 精度边界 */
+    private static final int RESCALE_THRESHOLD = 30;
+
+    /** 重置基准时每次脚本调用处理的榜单数 */
+    private static final int RESCALE_CHUNK_SIZE = 100;
+
+    /** 文章维度缓存上限（超出后整体清空，按需重新加载） */
+    private static final int DIMENSION_CACHE_LIMIT = 10_000;
+
+    private static final DefaultRedisScript<Long> INCR_SCRIPT;
+    private static final DefaultRedisScript<Long> RESCALE_SCRIPT;
+    static {
+        INCR_SCRIPT = new DefaultRedisScript<>();
+        INCR_SCRIPT.setLocation(new ClassPathResource("scripts/trending_incr.lua"));
+        INCR_SCRIPT.setResultType(Long.class);
+
+        RESCALE_SCRIPT = new DefaultRedisScript<>();
+        RESCALE_SCRIPT.setLocation(new ClassPathResource("scripts/trending_rescale.lua"));
+        RESCALE_SCRIPT.setResultType(Long.class);
+    }
+
+    /**
+     * 统计窗口：平均寿命 = 窗口长度，λ = 1 / 秒数
+     */
+    public enum Window {
+        HOUR("1h", 3600), DAY("24h", 86400), WEEK("7d", 7 * 86400);
+
+        private final String code;
+        private final double lambda;
+
+        Window(String code, long seconds) {
+            this.code = code;
+            this.lambda = 1.0 / seconds;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        public static Window of(String code) {
+            for (Window window : values()) {
+                if (window.code.equals(code)) return window;
+            }
+            throw new BusinessException("不支持的时间窗口: " + code + "（可选 1h / 24h / 7d）");
+        }
+    }
+
+    /**
+     * 事件权重
+     */
+    public enum Event {
+        VIEW(1), LIKE(5), UNLIKE(-5), COMMENT(8);
+
+        private final double weight;
+
+        Event(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    /** 文章的分类与标签（决定事件计入哪些分榜） */
+    private record Dimensions(Long categoryId, List<Long> tagIds) {}
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ArticleRepository articleRepository;
+
+    /** 本秒内的增量：articleId → 权重和 */
+    private final AtomicReference<ConcurrentHashMap<Long, DoubleAdder>> pending =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+
+    private final Map<Long, Dimensions> dimensionCache = new ConcurrentHashMap<>();
+
+    // ========== 写入 ==========
+
+    /**
+     * 记录一个事件（进程内累加，不访问 Redis）
+     */
+    public void record(Long articleId, Event event) {
+        pending.get().computeIfAbsent(articleId, id -> new DoubleAdder()).add(event.weight);
+    }
+
+    /**
+     * 合并本秒增量到 Redis（一次 Lua 调用）
+     *
+     * 换出 Map 的瞬间仍持有旧引用的 record() 可能丢失，对热度榜的影响可以忽略
+     *
+     * @return 写入的榜单条目数
+     */
+    public int flush() {
+        ConcurrentHashMap<Long, DoubleAdder> batch = pending.getAndSet(new ConcurrentHashMap<>());
+        if (batch.isEmpty()) return 0;
+
+        Map<Long, Dimensions> dimensions = loadDimensions(batch.keySet());
+
+        // KEYS：epoch、注册表、本批涉及的榜单（去重）；ARGV 中的条目按下标引用榜单 Key
+        List<String> keys = new ArrayList<>(List.of(RedisKeyPrefix.TRENDING_EPOCH, RedisKeyPrefix.TRENDING_REGISTRY));
+        Map<String, Integer> keyIndex = new HashMap<>();
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(System.currentTimeMillis() / 1000));
+        args.add(String.valueOf(MAX_RANK_SIZE));
+        batch.forEach((articleId, adder) -> {
+            double weight = adder.sum();
+            Dimensions dims = dimensions.get(articleId);
+            // 权重抵消为 0，或文章已删除
+            if (weight == 0 || dims == null) return;
+            for (Window window : Window.values()) {
+                for (String key : rankKeys(window, dims)) {
+                    int index = keyIndex.computeIfAbsent(key, k -> {
+                        keys.add(k);
+                        return keys.size();
+                    });
+                    args.add(String.valueOf(index));
+                    args.add(window.code);
+                    args.add(String.valueOf(window.lambda));
+                    args.add(articleId.toString());
+                    args.add(String.valueOf(weight));
+                }
+            }
+        });
+        if (keyIndex.isEmpty()) return 0;
+
+        Long written = stringRedisTemplate.execute(INCR_SCRIPT, keys, args.toArray());
+        return written != null ? written.intValue() : 0;
+    }
+
+    /**
+     * 重置各窗口的衰减基准
+     *
+     * 每个榜单有独立的 epoch，按窗口 SMEMBERS 注册表后分批交给脚本；
+     * 未达阈值的榜单在脚本内只有一次 HGET
+     */
+    public void rescale() {
+        long now = System.currentTimeMillis() / 1000;
+        Set<String> registered = stringRedisTemplate.opsForSet().members(RedisKeyPrefix.TRENDING_REGISTRY);
+        if (registered == null || registered.isEmpty()) return;
+
+        for (Window window : Window.values()) {
+            String prefix = RedisKeyPrefix.TRENDING + window.code + ":";
+            List<String> windowKeys = registered.stream().filter(key -> key.startsWith(prefix)).toList();
+            long rescaled = 0;
+            for (int from = 0; from < windowKeys.size(); from += RESCALE_CHUNK_SIZE) {
+                List<String> keys = new ArrayList<>(List.of(RedisKeyPrefix.TRENDING_EPOCH, RedisKeyPrefix.TRENDING_REGISTRY));
+                keys.addAll(windowKeys.subList(from, Math.min(from + RESCALE_CHUNK_SIZE, windowKeys.size())));
+                Long chunk = stringRedisTemplate.execute(RESCALE_SCRIPT, keys,
+                        window.code, String.valueOf(window.lambda), String.valueOf(now), String.valueOf(RESCALE_THRESHOLD));
+                if (chunk != null) rescaled += chunk;
+            }
+            if (rescaled > 0) {
+                log.info("[Trending] 窗口 {} 重置衰减基准，缩放 {} 个榜单", window.code, rescaled);
+            }
+        }
+    }
+
+    /**
+     * 文章分类 / 标签变化或删除时清除维度缓存
+     */
+    public void evictDimensions(Long articleId) {
+        dimensionCache.remove(articleId);
+    }
+
+    /**
+     * 文章删除 / 撤回时从全部榜单移除（一次 Pipeline ZREM）
+     *
+     * 榜单按文章当前的分类 / 标签定位，并合并维度缓存中的旧维度（同一次更新里可能改了分类 / 标签）；
+     * 本秒尚未合并的增量一并丢弃，flush 时未发布的文章也查不到维度，不会被重新写入
+     */
+    public void remove(Article article) {
+        Long articleId = article.getId();
+        pending.get().remove(articleId);
+        Dimensions cached = dimensionCache.remove(articleId);
+        Dimensions current = new Dimensions(
+                article.getCategory() != null ? article.getCategory().getId() : null,
+                article.getTags() != null ? article.getTags().stream().map(Tag::getId).toList() : Collections.emptyList());
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (Window window : Window.values()) {
+            keys.addAll(rankKeys(window, current));
+            if (cached != null) keys.addAll(rankKeys(window, cached));
+        }
+        String member = articleId.toString();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String key : keys) {
+                conn.zRem(key, member);
+            }
+            return null;
+        });
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 读取榜单前 N 名：articleId → 当前（已衰减的）热度分，按热度降序
+     *
+     * @param categoryId 分类榜（可空）
+     * @param tagId      标签榜（可空，与 categoryId 二选一）
+     */
+    public LinkedHashMap<Long, Double> top(Window window, Long categoryId, Long tagId, int limit) {
+        String key = categoryId != null ? categoryKey(window, categoryId)
+                : tagId != null ? tagKey(window, tagId)
+                : RedisKeyPrefix.TRENDING + window.code + ":all";
+
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(key, 0, limit - 1);
+        LinkedHashMap<Long, Double> result = new LinkedHashMap<>();
+        if (tuples == null || tuples.isEmpty()) return result;
+
+        List<Object> epochs = stringRedisTemplate.opsForHash().multiGet(RedisKeyPrefix.TRENDING_EPOCH, List.of(key, window.code));
+        Object epoch = epochs.get(0) != null ? epochs.get(0) : epochs.get(1);
+        long now = System.currentTimeMillis() / 1000;
+        double decay = epoch != null ? Math.exp(-window.lambda * (now - Long.parseLong(epoch.toString()))) : 1.0;
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            double score = tuple.getScore() != null ? tuple.getScore() * decay : 0.0;
+            result.put(Long.parseLong(Objects.requireNonNull(tuple.getValue())), score);
+        }
+        return result;
+    }
+
+    // ========== 工具方法 ==========
+
+    private List<String> rankKeys(Window window, Dimensions dims) {
+        List<String> keys = new ArrayList<>();
+        keys.add(RedisKeyPrefix.TRENDING + window.code + ":all");
+        if (dims.categoryId() != null) keys.add(categoryKey(window, dims.categoryId()));
+        for (Long tagId : dims.tagIds()) keys.add(tagKey(window, tagId));
+        return keys;
+    }
+
+    private String categoryKey(Window window, Long categoryId) {
+        return RedisKeyPrefix.TRENDING + window.code + ":cat:" + categoryId;
+    }
+
+    private String tagKey(Window window, Long tagId) {
+        return RedisKeyPrefix.TRENDING + window.code + ":tag:" + tagId;
+    }
+
+    /**
+     * 取文章维度：命中本地缓存直接用，未命中的一次 IN 查询补齐
+     */
+    private Map<Long, Dimensions> loadDimensions(Set<Long> articleIds) {
+        Map<Long, Dimensions> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : articleIds) {
+            Dimensions dims = dimensionCache.get(id);
+            if (dims != null) result.put(id, dims);
+            else missing.add(id);
+        }
+        if (missing.isEmpty()) return result;
+
+        Map<Long, Long> categories = new HashMap<>();
+        Map<Long, List<Long>> tags = new HashMap<>();
+        for (Object[] row : articleRepository.findCategoryAndTagIds(missing)) {
+            Long articleId = (Long) row[0];
+            categories.put(articleId, (Long) row[1]);
+            List<Long> tagIds = tags.computeIfAbsent(articleId, id -> new ArrayList<>());
+            if (row[2] != null) tagIds.add((Long) row[2]);
+        }
+
+        if (dimensionCache.size() > DIMENSION_CACHE_LIMIT) {
+            dimensionCache.clear();
+        }
+        for (Long id : categories.keySet()) {
+            Dimensions dims = new Dimensions(categories.get(id), tags.getOrDefault(id, Collections.emptyList()));
+            dimensionCache.put(id, dims);
+            result.put(id, dims);
+        }
+        return result;
+    }
+}
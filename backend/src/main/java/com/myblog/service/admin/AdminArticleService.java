@@ -6,7 +6,12 @@ import com.myblog.dto.admin.ArticleQueryRequest;
 import com.myblog.entity.Article;
 import com.myblog.repository.ArticleRepository;
 import com.myblog.repository.CommentRepository;
+import com.myblog.service.ArticleDuplicateService;
+import com.myblog.service.FeedService;
+import com.myblog.service.LikeStorageService;
+import com.myblog.service.TrendingService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
@@ -17,18 +22,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
  * 管理端文章服务
- * 提供：分页查询、发布/取消发布、置顶、批量删除
+ * 提供：分页查询、发布/取消发布、置顶、批量删除、疑似重复标记处理
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AdminArticleService {
 
     private final ArticleRepository articleRepository;
     private final CommentRepository commentRepository;
+    private final ArticleDuplicateService articleDuplicateService;
+    private final LikeStorageService likeStorageService;
+    private final TrendingService trendingService;
+    private final FeedService feedService;
 
     /**
      * 分页查询文章列表（管理端，可见全部文章含草稿）
@@ -43,15 +55,29 @@ public class AdminArticleService {
         Pageable pageable = PageRequest.of(request.getPage() - 1, request.getSize(), sort);
 
         Page<Article> articlePage;
-        if (request.getKeyword() != null && !request.getKeyword().isBlank()) {
+        if (Boolean.TRUE.equals(request.getDuplicateOnly())) {
+            // 只看疑似重复文章
+            articlePage = articleRepository.findByDuplicateOfIdIsNotNull(pageable);
+        } else if (request.getKeyword() != null && !request.getKeyword().isBlank()) {
             // 按关键词搜索（标题+内容）
             articlePage = articleRepository.searchByKeyword(request.getKeyword(), pageable);
         } else {
             articlePage = articleRepository.findAll(pageable);
         }
 
+        // 批量查出疑似重复的原文标题（一次 IN 查询）
+        List<Long> duplicateOfIds = articlePage.getContent().stream()
+                .map(Article::getDuplicateOfId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, String> duplicateTitles = duplicateOfIds.isEmpty()
+                ? Map.of()
+                : articleRepository.findAllById(duplicateOfIds).stream()
+                        .collect(Collectors.toMap(Article::getId, Article::getTitle));
+
         List<ArticleAdminResponse> records = articlePage.getContent().stream()
-                .map(this::toAdminResponse)
+                .map(article -> toAdminResponse(article, duplicateTitles))
                 .collect(Collectors.toList());
 
         return new PageResult<>(
@@ -78,8 +104,21 @@ public class AdminArticleService {
     public void togglePublish(Long id, boolean publish) {
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("文章不存在，id=" + id));
+        boolean wasPublished = Boolean.TRUE.equals(article.getPublished());
         article.setPublished(publish);
         articleRepository.save(article);
+
+        // 撤回 → Feed 墓碑 + 移出热度榜；重新发布 → 移除墓碑（尽力而为，Redis 异常不回滚发布状态）
+        try {
+            if (wasPublished && !publish) {
+                feedService.tombstone(article);
+                trendingService.remove(article);
+            } else if (!wasPublished && publish) {
+                feedService.revive(article);
+            }
+        } catch (Exception e) {
+            log.warn("Feed 墓碑同步失败: {}", e.getMessage());
+        }
     }
 
     /**
@@ -112,12 +151,37 @@ public class AdminArticleService {
         @CacheEvict(value = "dashboardStats", allEntries = true)
     })
     public void batchDelete(List<Long> ids) {
-        articleRepository.deleteAllById(ids);
+        List<Article> articles = articleRepository.findAllById(ids);
+        articleRepository.deleteAll(articles);
+        articles.forEach(a -> {
+            articleDuplicateService.remove(a.getId(), a.getSimHash());
+            likeStorageService.deleteAll(a.getId());
+            try {
+                feedService.tombstone(a);
+                trendingService.remove(a);
+            } catch (Exception e) {
+                log.warn("Feed 墓碑登记失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 忽略疑似重复标记（人工确认不是重复内容）
+     *
+     * @param id 文章ID
+     */
+    @Transactional
+    public void dismissDuplicate(Long id) {
+        Article article = articleRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("文章不存在，id=" + id));
+        article.setDuplicateOfId(null);
+        article.setDuplicateDistance(null);
+        articleRepository.save(article);
     }
 
     // ---- 私有辅助方法 ----
 
-    private ArticleAdminResponse toAdminResponse(Article article) {
+    private ArticleAdminResponse toAdminResponse(Article article, Map<Long, String> duplicateTitles) {
         return ArticleAdminResponse.builder()
                 .id(article.getId())
                 .title(article.getTitle())
@@ -131,6 +195,10 @@ public class AdminArticleService {
                 .commentCount(commentRepository.countByArticle(article))
                 .published(article.getPublished())
                 .featured(article.getFeatured())
+                .duplicateOfId(article.getDuplicateOfId())
+                .duplicateOfTitle(article.getDuplicateOfId() != null
+                        ? duplicateTitles.get(article.getDuplicateOfId()) : null)
+                .duplicateDistance(article.getDuplicateDistance())
                 .createdAt(article.getCreatedAt())
                 .updatedAt(article.getUpdatedAt())
                 .build();
@@ -0,0 +1,68 @@
+package com.myblog.service.admin;
+
+import com.myblog.common.result.CursorPage;
+import com.myblog.common.result.PageResult;
+import com.myblog.dto.admin.CommentAdminResponse;
+import com.myblog.dto.admin.CommentQueryRequest;
+import com.myblog.repository.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 管理端评论查询服务
+ * 提供：条件筛选（审核状态 / 文章 / 时间范围 / 关键词）+ 页码分页或游标分页，均为 DTO 投影
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminCommentService {
+
+    /** 单页上限 */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CommentRepository commentRepository;
+
+    /**
+     * 页码分页（兼容原列表接口，带总数）
+     */
+    public PageResult<CommentAdminResponse> getComments(CommentQueryRequest request) {
+        int size = clampSize(request.getSize());
+        int page = Math.max(request.getPage(), 1);
+        String keyword = likePattern(request.getKeyword());
+        List<CommentAdminResponse> records = commentRepository.searchForAdmin(
+                request.getApproved(), request.getArticleId(), request.getStartTime(), request.getEndTime(),
+                keyword, null, null, PageRequest.of(page - 1, size));
+        long total = commentRepository.countForAdmin(
+                request.getApproved(), request.getArticleId(), request.getStartTime(), request.getEndTime(), keyword);
+        return new PageResult<>(records, total, (long) page, (long) size);
+    }
+
+    /**
+     * 游标分页（createdAt 倒序，多查一条判断是否有下一页；withTotal=false 时不执行 COUNT）
+     */
+    public CursorPage<CommentAdminResponse> getCommentsByCursor(CommentQueryRequest request) {
+        int size = clampSize(request.getSize());
+        String keyword = likePattern(request.getKeyword());
+        CursorPage.Key key = CursorPage.decode(request.getCursor());
+        List<CommentAdminResponse> rows = commentRepository.searchForAdmin(
+                request.getApproved(), request.getArticleId(), request.getStartTime(), request.getEndTime(), keyword,
+                key != null ? key.createdAt() : null, key != null ? key.id() : null, PageRequest.of(0, size + 1));
+        CursorPage<CommentAdminResponse> page = CursorPage.of(rows, size,
+                CommentAdminResponse::getCreatedAt, CommentAdminResponse::getId, r -> r);
+        if (request.isWithTotal()) {
+            page.withTotal(commentRepository.countForAdmin(request.getApproved(), request.getArticleId(),
+                    request.getStartTime(), request.getEndTime(), keyword));
+        }
+        return page;
+    }
+
+    private static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static String likePattern(String keyword) {
+        return keyword == null || keyword.isBlank() ? null : "%" + keyword.trim() + "%";
+    }
+}
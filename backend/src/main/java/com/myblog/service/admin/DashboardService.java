@@ -1,15 +1,20 @@
 package com.myblog.service.admin;
 
 import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.dto.admin.CheckInAnalyticsDTO;
 import com.myblog.dto.admin.DashboardStatsDTO;
 import com.myblog.entity.Article;
 import com.myblog.entity.Comment;
 import com.myblog.repository.*;
+import com.myblog.service.CheckInService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
@@ -29,6 +34,7 @@ import java.util.stream.Collectors;
  *   - 统计数据缓存5分钟（dashboardStats）
  *   - 今日访问量通过Redis实时累计（不缓存）
  *   - 访问趋势使用Redis记录的日访问量
+ *   - 签到活跃度（DAU / WAU / MAU / 留存）基于每日签到位图，缓存5分钟
  */
 @Slf4j
 @Service
@@ -42,6 +48,12 @@ public class DashboardService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final StringRedisTemplate stringRedisTemplate;
 
+    /** 签到留存统计的 N 日（队列日 = 昨天 - N） */
+    private static final int[] RETENTION_DAYS = {1, 3, 7, 30};
+
+    /** 签到趋势最多天数（受每日位图保留期限制） */
+    private static final int CHECK_IN_TREND_MAX_DAYS = 60;
+
     /**
      * 获取仪表盘统计数据（缓存5分钟）
      */
@@ -113,20 +125,21 @@ public class DashboardService {
     }
 
     /**
-     * 获取访问趋势（从Redis日访问量读取，7天数据）
+     * 获取访问趋势（从Redis日访问量读取，7天数据，一次 MGET）
      */
     private List<DashboardStatsDTO.TrendItem> getViewTrend(int days) {
+        List<LocalDate> dates = recentDays(days);
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(dates.stream()
+                .map(date -> RedisKeyPrefix.DAILY_VIEW_COUNT + date.format(DateTimeFormatter.ISO_LOCAL_DATE))
+                .collect(Collectors.toList()));
+
         List<DashboardStatsDTO.TrendItem> trend = new ArrayList<>();
         DateTimeFormatter displayFormatter = DateTimeFormatter.ofPattern("MM-dd");
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            String key = RedisKeyPrefix.DAILY_VIEW_COUNT 
-                    + date.format(DateTimeFormatter.ISO_LOCAL_DATE);
-            Object value = redisTemplate.opsForValue().get(key);
-            long count = value != null ? ((Number) value).longValue() : 0L;
+        for (int i = 0; i < dates.size(); i++) {
+            String value = values != null ? values.get(i) : null;
             trend.add(DashboardStatsDTO.TrendItem.builder()
-                    .date(date.format(displayFormatter))
-                    .count(count)
+                    .date(dates.get(i).format(displayFormatter))
+                    .count(value != null ? Long.parseLong(value) : 0L)
                     .build());
         }
         return trend;
@@ -224,26 +237,29 @@ public class DashboardService {
      * @return Map 包含 dates、uvCounts、pvCounts 三个列表
      */
     public Map<String, Object> getUvTrend(int days) {
-        List<String> dates = new ArrayList<>();
-        List<Long> uvCounts = new ArrayList<>();
-        List<Long> pvCounts = new ArrayList<>();
-
+        List<LocalDate> recent = recentDays(days);
         DateTimeFormatter display = DateTimeFormatter.ofPattern("MM-dd");
         DateTimeFormatter iso = DateTimeFormatter.ISO_LOCAL_DATE;
 
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            dates.add(date.format(display));
-
-            // UV — HyperLogLog PFCOUNT
-            String uvKey = RedisKeyPrefix.STATS_UV_DAILY + date.format(iso);
-            Long uv = stringRedisTemplate.opsForHyperLogLog().size(uvKey);
-            uvCounts.add(uv != null ? uv : 0L);
+        // 一次 Pipeline：每天 PFCOUNT（UV）+ GET（PV）
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LocalDate date : recent) {
+                conn.pfCount(RedisKeyPrefix.STATS_UV_DAILY + date.format(iso));
+                conn.get(RedisKeyPrefix.DAILY_VIEW_COUNT + date.format(iso));
+            }
+            return null;
+        });
 
-            // PV — String INCR 计数
-            String pvKey = RedisKeyPrefix.DAILY_VIEW_COUNT + date.format(iso);
-            Object pvVal = redisTemplate.opsForValue().get(pvKey);
-            pvCounts.add(pvVal != null ? ((Number) pvVal).longValue() : 0L);
+        List<String> dates = new ArrayList<>();
+        List<Long> uvCounts = new ArrayList<>();
+        List<Long> pvCounts = new ArrayList<>();
+        for (int i = 0; i < recent.size(); i++) {
+            dates.add(recent.get(i).format(display));
+            Object uv = replies.get(i * 2);
+            Object pv = replies.get(i * 2 + 1);
+            uvCounts.add(uv != null ? ((Number) uv).longValue() : 0L);
+            pvCounts.add(pv != null ? Long.parseLong(pv.toString()) : 0L);
         }
 
         Map<String, Object> result = new LinkedHashMap<>();
@@ -253,6 +269,118 @@ public class DashboardService {
         return result;
     }
 
+    /**
+     * 签到活跃度统计（缓存5分钟）
+     *
+     * 数据来源：签到脚本写入的全站每日位图 sign:daily:{yyyyMMdd}（offset=userId），
+     * 每天一个 Key，内存为 最大用户ID / 8 字节，不需要遍历每个用户的签到 Key：
+     * - DAU：BITCOUNT 当天位图
+     * - WAU / MAU：BITOP OR 近 7 / 30 天位图后 BITCOUNT
+     * - N 日留存：BITOP AND（N 天前的位图，昨天的位图）后 BITCOUNT，除以队列人数
+     * 全部命令在一次 Pipeline 中完成，BITOP 结果写入临时 Key，统计完立即删除
+     *
+     * @param days 趋势天数
+     */
+    @Cacheable(value = "dashboardStats", key = "'checkin:' + #days")
+    public CheckInAnalyticsDTO getCheckInAnalytics(int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate retentionDay = today.minusDays(1);
+        List<LocalDate> trendDates = recentDays(Math.max(1, Math.min(days, CHECK_IN_TREND_MAX_DAYS)));
+
+        String tmpPrefix = RedisKeyPrefix.SIGN_DAILY_TMP + UUID.randomUUID() + ":";
+        String wauKey = tmpPrefix + "wau";
+        String mauKey = tmpPrefix + "mau";
+        List<String> tmpKeys = new ArrayList<>(List.of(wauKey, mauKey));
+        for (int n : RETENTION_DAYS) {
+            tmpKeys.add(tmpPrefix + "r" + n);
+        }
+
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LocalDate date : trendDates) {
+                conn.bitCount(signDailyKey(date));
+            }
+            conn.bitOp(RedisStringCommands.BitOperation.OR, wauKey, signDailyKeys(today, 7));
+            conn.bitCount(wauKey);
+            conn.bitOp(RedisStringCommands.BitOperation.OR, mauKey, signDailyKeys(today, 30));
+            conn.bitCount(mauKey);
+            for (int i = 0; i < RETENTION_DAYS.length; i++) {
+                String cohortKey = signDailyKey(retentionDay.minusDays(RETENTION_DAYS[i]));
+                conn.bitCount(cohortKey);
+                conn.bitOp(RedisStringCommands.BitOperation.AND, tmpKeys.get(i + 2), cohortKey, signDailyKey(retentionDay));
+                conn.bitCount(tmpKeys.get(i + 2));
+            }
+            conn.del(tmpKeys.toArray(new String[0]));
+            return null;
+        });
+
+        DateTimeFormatter display = DateTimeFormatter.ofPattern("MM-dd");
+        int index = 0;
+        List<DashboardStatsDTO.TrendItem> dauTrend = new ArrayList<>();
+        for (LocalDate date : trendDates) {
+            dauTrend.add(DashboardStatsDTO.TrendItem.builder()
+                    .date(date.format(display))
+                    .count(toLong(replies.get(index++)))
+                    .build());
+        }
+        index++;  // BITOP OR (WAU)
+        long wau = toLong(replies.get(index++));
+        index++;  // BITOP OR (MAU)
+        long mau = toLong(replies.get(index++));
+
+        List<CheckInAnalyticsDTO.RetentionItem> retention = new ArrayList<>();
+        for (int n : RETENTION_DAYS) {
+            long cohortSize = toLong(replies.get(index++));
+            index++;  // BITOP AND
+            long retained = toLong(replies.get(index++));
+            retention.add(CheckInAnalyticsDTO.RetentionItem.builder()
+                    .days(n)
+                    .cohortDate(retentionDay.minusDays(n).format(display))
+                    .cohortSize(cohortSize)
+                    .retained(retained)
+                    .rate(cohortSize > 0 ? (double) retained / cohortSize : 0.0)
+                    .build());
+        }
+
+        return CheckInAnalyticsDTO.builder()
+                .dau(dauTrend.get(dauTrend.size() - 1).getCount())
+                .wau(wau)
+                .mau(mau)
+                .dauTrend(dauTrend)
+                .retention(retention)
+                .build();
+    }
+
+    private String signDailyKey(LocalDate date) {
+        return RedisKeyPrefix.SIGN_DAILY + date.format(CheckInService.DAY_KEY);
+    }
+
+    /**
+     * 截至 end（含）的最近 N 天签到位图 Key
+     */
+    private String[] signDailyKeys(LocalDate end, int days) {
+        String[] keys = new String[days];
+        for (int i = 0; i < days; i++) {
+            keys[i] = signDailyKey(end.minusDays(i));
+        }
+        return keys;
+    }
+
+    private static long toLong(Object reply) {
+        return reply != null ? ((Number) reply).longValue() : 0L;
+    }
+
+    /**
+     * 最近 N 天（含今天），按日期升序
+     */
+    private List<LocalDate> recentDays(int days) {
+        List<LocalDate> dates = new ArrayList<>(days);
+        for (int i = days - 1; i >= 0; i--) {
+            dates.add(LocalDate.now().minusDays(i));
+        }
+        return dates;
+    }
+
     /**
      * 截断内容
      */
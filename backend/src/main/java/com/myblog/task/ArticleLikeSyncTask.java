@@ -0,0 +1,99 @@
+package com.myblog.task;
+
+import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.service.LikeStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 点赞记录落库任务 — Write-Behind 模式
+ *
+ * like_toggle.lua 每次真正切换都会 RPUSH 一条事件到 article:like:events，
+ * 本任务每 10 秒把事件批量写入 article_likes 表，使 Redis 丢失后可以重建"谁赞了什么"
+ *
+ * 至少一次语义：
+ * - like_event_drain.lua 原子地把一批事件从队列移到处理中队列
+ * - 写库成功后才 DEL 处理中队列；失败则下轮原样重放（按最终状态写入，重放幂等）
+ * - 写库成功后同时清理 article:like:pending:{id} 中已落库的状态（重建只读这个 HASH）
+ * - 处理中队列全局只有一个，整轮同步持有 Redisson 锁：多实例不会同时重放同一批事件，
+ *   也不会出现旧批次晚于新批次落库、把已取消的点赞写回的情况
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArticleLikeSyncTask {
+
+    /** 每批取出的事件数 */
+    private static final int DRAIN_BATCH_SIZE = 500;
+
+    /** 单次同步最多处理的批数（防止单轮任务过长） */
+    private static final int MAX_BATCHES_PER_RUN = 200;
+
+    private static final DefaultRedisScript<List<String>> DRAIN_SCRIPT;
+    static {
+        DRAIN_SCRIPT = new DefaultRedisScript<>();
+        DRAIN_SCRIPT.setLocation(new ClassPathResource("scripts/like_event_drain.lua"));
+        @SuppressWarnings("unchecked")
+        Class<List<String>> resultType = (Class<List<String>>) (Class<?>) List.class;
+        DRAIN_SCRIPT.setResultType(resultType);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final LikeStorageService likeStorageService;
+    private final RedissonClient redissonClient;
+
+    /**
+     * 每 10 秒把点赞切换事件批量写入 article_likes
+     */
+    @Scheduled(fixedDelay = 10000, initialDelay = 30000)
+    public void syncLikeRecords() {
+        RLock lock = redissonClient.getLock(RedisKeyPrefix.LOCK_LIKE_EVENT_SYNC);
+        if (!lock.tryLock()) return;
+        try {
+            drainEvents();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainEvents() {
+        int synced = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            List<String> events = stringRedisTemplate.execute(
+                    DRAIN_SCRIPT,
+                    Arrays.asList(RedisKeyPrefix.ARTICLE_LIKE_EVENTS, RedisKeyPrefix.ARTICLE_LIKE_EVENTS_PROCESSING),
+                    String.valueOf(DRAIN_BATCH_SIZE)
+            );
+            if (events == null || events.isEmpty()) break;
+
+            try {
+                synced += likeStorageService.persistEvents(events);
+            } catch (Exception e) {
+                log.error("[LikeRecordSync] 点赞记录写库失败，{} 条事件保留待重试", events.size(), e);
+                break;
+            }
+            try {
+                likeStorageService.ackPending(events);
+            } catch (Exception e) {
+                // 未清理的状态与最新状态一致，重建时重放无副作用，只是多占一点内存
+                log.warn("[LikeRecordSync] 清理未落库状态失败: {}", e.getMessage());
+            }
+            stringRedisTemplate.delete(RedisKeyPrefix.ARTICLE_LIKE_EVENTS_PROCESSING);
+            if (events.size() < DRAIN_BATCH_SIZE) break;
+        }
+
+        if (synced > 0) {
+            log.info("[LikeRecordSync] 已写入 {} 条点赞记录变更", synced);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.myblog.task;
+
+import com.myblog.common.constant.RedisKeyPrefix;
+import com.myblog.entity.ArticleStatsDaily;
+import com.myblog.repository.ArticleStatsDailyRepository;
+import com.myblog.service.ArticleStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * 文章时序统计汇总任务
+ *
+ * 每小时第 5 分钟执行：
+ * 1. 小时桶 → 日表：遍历昨天 / 今天的活跃文章集合（SSCAN），分批 Pipeline 汇总后覆盖写入 article_stats_daily
+ * 2. 日表 → 月表：对本批文章 SUM 当月日统计，UV 取月级 HyperLogLog，覆盖写入 article_stats_monthly
+ * 3. 保留策略：按 blog.stats.* 删除过期的日 / 月记录
+ *
+ * 覆盖写入（先 DELETE 再 INSERT，同一事务）使任务可重复执行，今天的数据每小时刷新一次；
+ * 多实例部署时由分布式锁保证同一时刻只有一个实例执行，避免并发 DELETE + INSERT 写出重复行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArticleStatsCompactTask {
+
+    /** 每批汇总的文章数 */
+    private static final int BATCH_SIZE = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ArticleStatsService articleStatsService;
+    private final ArticleStatsDailyRepository dailyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RedissonClient redissonClient;
+
+    @Value("${blog.stats.daily-retention-days:400}")
+    private int dailyRetentionDays;
+
+    @Value("${blog.stats.monthly-retention-months:36}")
+    private int monthlyRetentionMonths;
+
+    @Scheduled(cron = "0 5 * * * ?")
+    public void compact() {
+        RLock lock = redissonClient.getLock(RedisKeyPrefix.LOCK_ARTICLE_STATS_COMPACT);
+        if (!lock.tryLock()) return;
+        try {
+            compactAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void compactAll() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int rows = 0;
+        for (LocalDate day : Arrays.asList(today.minusDays(1), today)) {
+            try {
+                rows += compactDay(day);
+            } catch (Exception e) {
+                log.error("[StatsCompact] 汇总 {} 失败，下一轮重试", day, e);
+            }
+        }
+
+        try {
+            applyRetention(today);
+        } catch (Exception e) {
+            log.warn("[StatsCompact] 清理过期统计失败: {}", e.getMessage());
+        }
+
+        if (rows > 0) {
+            log.info("[StatsCompact] 汇总完成: {} 条日统计，耗时 {} ms", rows, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * 汇总某一天：SSCAN 活跃文章集合，每 BATCH_SIZE 篇一批
+     */
+    private int compactDay(LocalDate day) {
+        String activeKey = RedisKeyPrefix.TS_ARTICLE_ACTIVE + day.format(ArticleStatsService.DAY_KEY);
+        int rows = 0;
+        List<Long> batch = new ArrayList<>(BATCH_SIZE);
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet()
+                .scan(activeKey, ScanOptions.scanOptions().count(BATCH_SIZE).build())) {
+            while (cursor.hasNext()) {
+                batch.add(Long.parseLong(cursor.next()));
+                if (batch.size() >= BATCH_SIZE) {
+                    rows += compactBatch(batch, day);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            rows += compactBatch(batch, day);
+        }
+        return rows;
+    }
+
+    private int compactBatch(List<Long> articleIds, LocalDate day) {
+        List<ArticleStatsDaily> daily = articleStatsService.aggregateArticles(articleIds, day);
+        YearMonth month = YearMonth.from(day);
+        Date dayParam = Date.valueOf(day);
+        Date monthParam = Date.valueOf(month.atDay(1));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // ① 日表覆盖写入
+            List<Object[]> deletes = new ArrayList<>(daily.size());
+            List<Object[]> inserts = new ArrayList<>(daily.size());
+            for (ArticleStatsDaily row : daily) {
+                deletes.add(new Object[]{row.getArticleId(), dayParam});
+                inserts.add(new Object[]{row.getArticleId(), dayParam, row.getViews(), row.getUv(),
+                        row.getLikes(), row.getComments()});
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM article_stats_daily WHERE article_id = ? AND stat_date = ?", deletes);
+            jdbcTemplate.batchUpdate("INSERT INTO article_stats_daily (article_id, stat_date, views, uv, likes, comments) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", inserts);
+
+            // ② 月表：SUM 当月日统计 + 月级 HLL
+            List<Object[]> sums = dailyRepository.sumByArticleIds(articleIds, month.atDay(1), month.atEndOfMonth());
+            Map<Long, Long> monthlyUv = countMonthlyUv(articleIds, month);
+            List<Object[]> monthDeletes = new ArrayList<>(sums.size());
+            List<Object[]> monthInserts = new ArrayList<>(sums.size());
+            for (Object[] sum : sums) {
+                Long articleId = (Long) sum[0];
+                monthDeletes.add(new Object[]{articleId, monthParam});
+                monthInserts.add(new Object[]{articleId, monthParam, sum[1], monthlyUv.getOrDefault(articleId, 0L),
+                        sum[2], sum[3]});
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM article_stats_monthly WHERE article_id = ? AND stat_month = ?", monthDeletes);
+            jdbcTemplate.batchUpdate("INSERT INTO article_stats_monthly (article_id, stat_month, views, uv, likes, comments) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", monthInserts);
+        });
+        return daily.size();
+    }
+
+    private Map<Long, Long> countMonthlyUv(List<Long> articleIds, YearMonth month) {
+        String monthKey = month.format(ArticleStatsService.MONTH_KEY);
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long articleId : articleIds) {
+                conn.pfCount(RedisKeyPrefix.TS_ARTICLE_UV_MONTHLY + articleId + ":" + monthKey);
+            }
+            return null;
+        });
+        Map<Long, Long> result = new HashMap<>();
+        for (int i = 0; i < articleIds.size(); i++) {
+            Object uv = replies.get(i);
+            result.put(articleIds.get(i), uv != null ? ((Number) uv).longValue() : 0L);
+        }
+        return result;
+    }
+
+    /**
+     * 保留策略：删除超期的日 / 月统计（小时桶由 Redis TTL 自动过期）
+     */
+    private void applyRetention(LocalDate today) {
+        int daily = jdbcTemplate.update("DELETE FROM article_stats_daily WHERE stat_date < ?",
+                Date.valueOf(today.minusDays(dailyRetentionDays)));
+        int monthly = jdbcTemplate.update("DELETE FROM article_stats_monthly WHERE stat_month < ?",
+                Date.valueOf(YearMonth.from(today).minusMonths(monthlyRetentionMonths).atDay(1)));
+        if (daily + monthly > 0) {
+            log.info("[StatsCompact] 清理过期统计: 日表 {} 条，月表 {} 条", daily, monthly);
+        }
+    }
+}
@@ -4,11 +4,15 @@ import cn.hutool.json.JSONUtil;
 import com.myblog.common.constant.RedisKeyPrefix;
 import com.myblog.common.redis.RedisData;
 import com.myblog.entity.Article;
-import com.myblog.entity.UserTagFollow;
+import com.myblog.entity.Tag;
 import com.myblog.repository.ArticleRepository;
-import com.myblog.repository.UserTagFollowRepository;
+import com.myblog.repository.TagRepository;
+import com.myblog.service.ArticleDuplicateService;
 import com.myblog.service.ArticleService;
 import com.myblog.service.CategoryService;
+import com.myblog.service.FeedService;
+import com.myblog.service.FollowService;
+import com.myblog.service.LikeStorageService;
 import com.myblog.service.TagService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +25,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * 缓存预热任务
@@ -29,7 +34,9 @@ import java.util.List;
  * 1. 预热分类/标签/精选/热门缓存（已有）
  * 2. 初始化布隆过滤器（缓存穿透防御）
  * 3. 预热精选文章逻辑过期缓存（缓存击穿防御）
- * 4. 重建关注关系到 Redis（Feed 流冷启动）
+ * 4. 重建关注关系与标签时间线到 Redis（Feed 流冷启动）
+ * 5. 重建 SimHash LSH 分桶索引（近似重复检测）
+ * 6. 迁移旧格式点赞集合为 位图 + 游客指纹集合
  */
 @Slf4j
 @Component
@@ -42,7 +49,11 @@ public class CacheWarmupTask implements ApplicationRunner {
     private final ArticleRepository articleRepository;
     private final RedissonClient redissonClient;
     private final StringRedisTemplate stringRedisTemplate;
-    private final UserTagFollowRepository followRepository;
+    private final FollowService followService;
+    private final TagRepository tagRepository;
+    private final ArticleDuplicateService articleDuplicateService;
+    private final LikeStorageService likeStorageService;
+    private final FeedService feedService;
 
     @Override
     public void run(ApplicationArguments args) {
@@ -76,6 +87,12 @@ public class CacheWarmupTask implements ApplicationRunner {
             // 重建关注关系到 Redis（Feed 流冷启动）
             rebuildFollowRelations();
 
+            // 重建 SimHash 索引（近似重复检测）
+            rebuildSimHashIndex();
+
+            // 迁移旧格式点赞集合（幂等，无旧 Key 时只有一次 SCAN）
+            migrateLegacyLikes();
+
             log.info("[CacheWarmup] 缓存预热完成！");
         } catch (Exception e) {
             log.warn("[CacheWarmup] 缓存预热失败（不影响正常使用）: {}", e.getMessage());
@@ -126,18 +143,40 @@ public class CacheWarmupTask implements ApplicationRunner {
      */
     private void rebuildFollowRelations() {
         try {
-            List<UserTagFollow> allFollows = followRepository.findAll();
-            for (UserTagFollow f : allFollows) {
-                stringRedisTemplate.opsForSet().add(
-                        RedisKeyPrefix.FOLLOW_TAGS + f.getUserId(), f.getTagId().toString()
-                );
-                stringRedisTemplate.opsForSet().add(
-                        RedisKeyPrefix.TAG_FOLLOWERS + f.getTagId(), f.getUserId().toString()
-                );
-            }
-            log.info("[CacheWarmup] ✓ 关注关系重建完成: {} 条记录", allFollows.size());
+            followService.loadFollowGraph();
+            log.info("[CacheWarmup] ✓ 关注关系检查完成");
+
+            List<Long> tagIds = tagRepository.findAll().stream().map(Tag::getId).collect(Collectors.toList());
+            int timelines = feedService.rebuildTagTimelines(tagIds);
+            log.info("[CacheWarmup] ✓ 标签时间线重建完成: {} 个标签", timelines);
         } catch (Exception e) {
             log.warn("[CacheWarmup] 关注关系重建失败: {}", e.getMessage());
         }
     }
+
+    /**
+     * 重建 SimHash LSH 分桶索引 — 指纹已持久化在 articles.sim_hash，Redis 丢失后可恢复
+     */
+    private void rebuildSimHashIndex() {
+        try {
+            List<Object[]> rows = articleRepository.findAllSimHashes();
+            for (Object[] row : rows) {
+                articleDuplicateService.index((Long) row[0], (Long) row[1]);
+            }
+            log.info("[CacheWarmup] ✓ SimHash 索引重建完成: {} 篇文章", rows.size());
+        } catch (Exception e) {
+            log.warn("[CacheWarmup] SimHash 索引重建失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把旧的 article:liked:{id} SET 迁移为紧凑存储
+     */
+    private void migrateLegacyLikes() {
+        try {
+            likeStorageService.migrateLegacySets();
+        } catch (Exception e) {
+            log.warn("[CacheWarmup] 旧点赞集合迁移失败: {}", e.getMessage());
+        }
+    }
 }
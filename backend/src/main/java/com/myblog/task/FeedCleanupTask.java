@@ -3,41 +3,196 @@ package com.myblog.task;
 import com.myblog.common.constant.RedisKeyPrefix;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Feed 清理定时任务
  *
- * 每天凌晨 3 点裁剪 Feed，每个用户只保留最近 500 条
- * 防止 ZSet 无限膨胀占用 Redis 内存
+ * 收件箱长度已在写入时裁剪（FeedService 扇出 Pipeline 中的 ZREMRANGEBYRANK），
+ * 这里只负责回收不活跃用户的收件箱：
+ * - 每天凌晨 3 点用 SCAN 游标分批遍历 feed:*，每批之间休眠，单次运行有 Key 数预算
+ * - 游标保存在 Redis（feed:cleanup:cursor），预算用尽或进程中断后下一次从断点继续
+ * - 用户最近一次读 Feed / 关注标签的时间记录在 feed:active，超过 inactive-days 未活跃的收件箱直接 UNLINK
+ *   （大标签的文章仍可从标签时间线拉取，新发布的文章照常推送，用户再次读 Feed 时按关注的标签回填重建）；
+ *   没有活跃记录的收件箱先补登为本次运行时间，不会在第一次清理时被误删
+ * - 保留下来的收件箱顺带移除命中墓碑的条目（feed_purge.lua），一轮遍历结束后才删除过期墓碑，
+ *   过期墓碑对应的失效文章不会因不再被过滤而重新出现
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class FeedCleanupTask {
 
+    private static final DefaultRedisScript<List<Object>> SCAN_SCRIPT;
+    static {
+        SCAN_SCRIPT = new DefaultRedisScript<>();
+        SCAN_SCRIPT.setLocation(new ClassPathResource("scripts/feed_scan.lua"));
+        @SuppressWarnings("unchecked")
+        Class<List<Object>> resultType = (Class<List<Object>>) (Class<?>) List.class;
+        SCAN_SCRIPT.setResultType(resultType);
+    }
+
+    private static final DefaultRedisScript<Long> PURGE_SCRIPT;
+    static {
+        PURGE_SCRIPT = new DefaultRedisScript<>();
+        PURGE_SCRIPT.setLocation(new ClassPathResource("scripts/feed_purge.lua"));
+        PURGE_SCRIPT.setResultType(Long.class);
+    }
+
     private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+
+    @Value("${blog.feed.cleanup.inactive-days:30}")
+    private int inactiveDays;
+
+    /** 墓碑保留天数（应远大于一轮遍历的耗时，过期前收件箱中的失效条目已被清理任务移除） */
+    @Value("${blog.feed.cleanup.tombstone-retention-days:90}")
+    private int tombstoneRetentionDays;
+
+    /** 每次 SCAN 的 COUNT */
+    @Value("${blog.feed.cleanup.scan-count:500}")
+    private int scanCount;
+
+    /** 每批之间的休眠（毫秒），限制对 Redis 的压力 */
+    @Value("${blog.feed.cleanup.batch-interval-ms:50}")
+    private long batchIntervalMs;
+
+    /** 单次运行最多检查的 Key 数，超出后保存游标，下次继续 */
+    @Value("${blog.feed.cleanup.max-keys-per-run:200000}")
+    private int maxKeysPerRun;
 
     @Scheduled(cron = "0 0 3 * * ?")
     public void cleanupFeeds() {
-        Set<String> feedKeys = stringRedisTemplate.keys(RedisKeyPrefix.FEED + "*");
-        if (feedKeys == null || feedKeys.isEmpty()) return;
-
-        int cleaned = 0;
-        for (String key : feedKeys) {
-            Long size = stringRedisTemplate.opsForZSet().size(key);
-            if (size != null && size > 500) {
-                stringRedisTemplate.opsForZSet().removeRange(key, 0, size - 501);
-                cleaned++;
+        RLock lock = redissonClient.getLock(RedisKeyPrefix.LOCK_FEED_CLEANUP);
+        if (!lock.tryLock()) return;
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[FeedCleanup] 清理被中断，下次从断点继续");
+        } catch (Exception e) {
+            log.warn("[FeedCleanup] 清理中断，下次从断点继续: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long cutoff = start - TimeUnit.DAYS.toMillis(inactiveDays);
+        String cursor = stringRedisTemplate.opsForValue().get(RedisKeyPrefix.FEED_CLEANUP_CURSOR);
+        if (cursor == null) cursor = "0";
+
+        int scanned = 0;
+        int removed = 0;
+        long purged = 0;
+        do {
+            List<Object> reply = stringRedisTemplate.execute(SCAN_SCRIPT, Collections.emptyList(),
+                    cursor, RedisKeyPrefix.FEED + "*", String.valueOf(scanCount));
+            cursor = reply.get(0).toString();
+            List<?> keys = (List<?>) reply.get(1);
+            scanned += keys.size();
+            List<String> inboxes = inboxKeys(keys);
+            removed += removeInactive(inboxes, cutoff, start);
+            purged += purgeTombstoned(inboxes);
+
+            stringRedisTemplate.opsForValue().set(RedisKeyPrefix.FEED_CLEANUP_CURSOR, cursor);
+            if (batchIntervalMs > 0) Thread.sleep(batchIntervalMs);
+        } while (!"0".equals(cursor) && scanned < maxKeysPerRun);
+
+        if ("0".equals(cursor)) {
+            // 一轮遍历结束：清理活跃记录与墓碑中的过期条目，下次从头开始
+            stringRedisTemplate.delete(RedisKeyPrefix.FEED_CLEANUP_CURSOR);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(RedisKeyPrefix.FEED_ACTIVE, 0, cutoff);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(RedisKeyPrefix.FEED_TOMBSTONE, 0,
+                    start - TimeUnit.DAYS.toMillis(tombstoneRetentionDays));
+        }
+        log.info("[FeedCleanup] 检查 {} 个 Key，回收 {} 个不活跃收件箱，移除 {} 条失效条目，耗时 {} ms{}",
+                scanned, removed, purged, System.currentTimeMillis() - start, "0".equals(cursor) ? "" : "（未完成，下次继续）");
+    }
+
+    /**
+     * feed:* 还匹配扇出任务等其他 Key，只保留 feed:{userId}
+     */
+    private List<String> inboxKeys(List<?> keys) {
+        List<String> inboxes = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            String suffix = key.toString().substring(RedisKeyPrefix.FEED.length());
+            if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                inboxes.add(key.toString());
             }
         }
+        return inboxes;
+    }
+
+    /**
+     * 一次 Pipeline 取这批用户的最近活跃时间，再一次 Pipeline UNLINK 不活跃的收件箱
+     *
+     * 没有活跃记录的收件箱视为"未知"而不是"不活跃"（例如 feed:active 上线前就存在的收件箱）：
+     * 以本次运行时间 ZADD NX 补登，不删除，满 inactive-days 仍未活跃才会被回收
+     * 被回收的收件箱从列表中移除，剩下的交给 purgeTombstoned
+     */
+    private int removeInactive(List<String> inboxKeys, long cutoff, long now) {
+        if (inboxKeys.isEmpty()) return 0;
 
-        if (cleaned > 0) {
-            log.info("[FeedCleanup] Feed 清理完成: {} 个用户", cleaned);
+        List<Object> scores = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String key : inboxKeys) {
+                conn.zScore(RedisKeyPrefix.FEED_ACTIVE, key.substring(RedisKeyPrefix.FEED.length()));
+            }
+            return null;
+        });
+
+        List<String> inactive = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (int i = 0; i < inboxKeys.size(); i++) {
+            Object lastActive = scores.get(i);
+            if (lastActive == null) {
+                unknown.add(inboxKeys.get(i).substring(RedisKeyPrefix.FEED.length()));
+            } else if (((Number) lastActive).doubleValue() < cutoff) {
+                inactive.add(inboxKeys.get(i));
+            }
+        }
+        if (!unknown.isEmpty()) {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String userId : unknown) {
+                    conn.zAdd(RedisKeyPrefix.FEED_ACTIVE, now, userId, RedisZSetCommands.ZAddArgs.ifNotExists());
+                }
+                return null;
+            });
         }
+        if (!inactive.isEmpty()) {
+            stringRedisTemplate.unlink(inactive);
+            inboxKeys.removeAll(inactive);
+        }
+        return inactive.size();
+    }
+
+    /**
+     * 从这批收件箱中移除命中墓碑的条目（一次 Lua 调用）
+     */
+    private long purgeTombstoned(List<String> inboxKeys) {
+        if (inboxKeys.isEmpty()) return 0;
+        List<String> keys = new ArrayList<>(inboxKeys.size() + 1);
+        keys.add(RedisKeyPrefix.FEED_TOMBSTONE);
+        keys.addAll(inboxKeys);
+        Long purged = stringRedisTemplate.execute(PURGE_SCRIPT, keys);
+        return purged != null ? purged : 0;
     }
 }
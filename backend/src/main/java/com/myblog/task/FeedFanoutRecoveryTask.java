@@ -0,0 +1,35 @@
+package com.myblog.task;
+
+import com.myblog.service.FeedService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feed 扇出恢复任务
+ *
+ * 每分钟检查待处理集合，心跳超过 5 分钟未更新的扇出任务重新投递到 MQ，
+ * 覆盖消息发送失败、进入死信、消费者长时间宕机等情况；任务从检查点继续执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedFanoutRecoveryTask {
+
+    private static final long STALE_MILLIS = 5 * 60 * 1000L;
+
+    private final FeedService feedService;
+
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void recover() {
+        try {
+            int resent = feedService.resendStaleFanouts(STALE_MILLIS);
+            if (resent > 0) {
+                log.info("[FeedFanoutRecovery] 补发停滞的扇出任务: {} 个", resent);
+            }
+        } catch (Exception e) {
+            log.warn("[FeedFanoutRecovery] 补发失败: {}", e.getMessage());
+        }
+    }
+}
@@ -2,19 +2,44 @@ package com.myblog.task;
 
 import com.myblog.common.constant.RedisKeyPrefix;
 import com.myblog.repository.ArticleRepository;
+import com.myblog.service.ArticleStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.DefaultStringTuple;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 /**
  * 热门榜定时刷新任务
  *
- * 每小时扫描所有文章的 HyperLogLog UV 数，
- * 写入 ZSet 排行榜（article:hot:weekly），
+ * 真正的滚动 7 日榜：
+ * - 候选文章 = 最近 7 天活跃集合（ts:article:active:{day}）的并集 ∩ 已发布文章，不再遍历全部文章
+ * - 7 日 UV = PFCOUNT 7 个日级 HyperLogLog（ts:article:uv:{id}:{day}），服务端直接求并集基数，不落临时 Key
+ * - 可选时间衰减：score = Σ e^(-λ·d) × (w_uv·UV_d + w_like·点赞_d + w_comment·评论_d)，d 为距今天数
+ *   点赞 / 评论取自 article_stats_daily（一次查询），UV_d 为单日 PFCOUNT
+ *
+ * 性能：候选文章按 ID 排序后分片（默认 1000 篇/片），每片一次 Pipeline，分片并行执行
+ *
+ * 无空窗重建：新榜先 Pipeline 批量写入临时 Key，再由 hot_rank_swap.lua 原子 RENAME 覆盖正式 Key
+ * （article:hot:weekly / article:hot:weekly:uv），重建期间读者始终看到完整的旧榜，
+ * 不会因空榜降级到 DB 查询引发惊群。每轮耗时、榜单规模写入 article:hot:weekly:stats。
+ *
  * 供 GET /api/articles/hot/weekly 实时查询。
  */
 @Slf4j
@@ -22,37 +47,223 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HotRankTask {
 
+    /** 分片并行度（线程池每轮创建、跑完即关闭，不在应用关闭后残留非守护线程） */
+    private static final int SHARD_PARALLELISM = 4;
+
+    /** 临时 Key 每条 ZADD / HSET 携带的成员数 */
+    private static final int WRITE_CHUNK_SIZE = 1000;
+
+    /** 临时 Key 兜底过期时间（重建中途崩溃时自动清理） */
+    private static final long TMP_KEY_TTL_SECONDS = 600;
+
+    private static final DefaultRedisScript<Long> SWAP_SCRIPT;
+    static {
+        SWAP_SCRIPT = new DefaultRedisScript<>();
+        SWAP_SCRIPT.setLocation(new ClassPathResource("scripts/hot_rank_swap.lua"));
+        SWAP_SCRIPT.setResultType(Long.class);
+    }
+
     private final StringRedisTemplate stringRedisTemplate;
     private final ArticleRepository articleRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${blog.hot-rank.window-days:7}")
+    private int windowDays;
+
+    @Value("${blog.hot-rank.shard-size:1000}")
+    private int shardSize;
+
+    @Value("${blog.hot-rank.decay.enabled:false}")
+    private boolean decayEnabled;
+
+    /** 衰减系数 λ：0.3 约等于半衰期 2.3 天 */
+    @Value("${blog.hot-rank.decay.lambda:0.3}")
+    private double lambda;
+
+    @Value("${blog.hot-rank.decay.uv-weight:1.0}")
+    private double uvWeight;
+
+    @Value("${blog.hot-rank.decay.like-weight:3.0}")
+    private double likeWeight;
+
+    @Value("${blog.hot-rank.decay.comment-weight:5.0}")
+    private double commentWeight;
+
+    /** 单篇文章的排名结果 */
+    private record RankEntry(Long articleId, long uv, double score) {}
 
     /**
      * 每小时整点刷新本周热门榜
      */
     @Scheduled(cron = "0 0 * * * ?")
     public void refreshWeeklyHotRank() {
-        List<Long> articleIds = articleRepository.findAllPublishedArticleIds();
-        if (articleIds.isEmpty()) return;
-
-        String hotKey = RedisKeyPrefix.ARTICLE_HOT_WEEKLY;
-
-        // 清空旧排行
-        stringRedisTemplate.delete(hotKey);
-
-        int updated = 0;
-        for (Long articleId : articleIds) {
-            Long uvCount = stringRedisTemplate.opsForHyperLogLog().size(
-                    RedisKeyPrefix.ARTICLE_UV + articleId
-            );
-            if (uvCount != null && uvCount > 0) {
-                stringRedisTemplate.opsForZSet().add(
-                        hotKey,
-                        articleId.toString(),
-                        uvCount.doubleValue()
-                );
-                updated++;
+        long startedAt = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        List<LocalDate> window = new ArrayList<>(windowDays);
+        for (int d = 0; d < windowDays; d++) {
+            window.add(today.minusDays(d));
+        }
+
+        List<Long> candidates = loadCandidates(window);
+        Map<Long, Double> engagement = decayEnabled ? loadEngagement(window) : Collections.emptyMap();
+
+        // 按 ID 区间分片，每片一次 Pipeline，并行执行
+        List<RankEntry> entries;
+        int shards = (candidates.size() + shardSize - 1) / shardSize;
+        ExecutorService executor = Executors.newFixedThreadPool(SHARD_PARALLELISM);
+        try {
+            List<CompletableFuture<List<RankEntry>>> futures = new ArrayList<>();
+            for (int from = 0; from < candidates.size(); from += shardSize) {
+                List<Long> shard = candidates.subList(from, Math.min(from + shardSize, candidates.size()));
+                futures.add(CompletableFuture.supplyAsync(() -> scoreShard(shard, window, engagement), executor));
             }
+            entries = futures.stream()
+                    .map(CompletableFuture::join)
+                    .flatMap(List::stream)
+                    .filter(e -> e.score() > 0)
+                    .collect(Collectors.toList());
+        } finally {
+            executor.shutdownNow();
         }
+        long scoredAt = System.currentTimeMillis();
+
+        // 写临时 Key → 原子 RENAME 覆盖正式 Key
+        String runId = UUID.randomUUID().toString();
+        String tmpHotKey = RedisKeyPrefix.ARTICLE_HOT_WEEKLY + ":tmp:" + runId;
+        String tmpUvKey = RedisKeyPrefix.ARTICLE_HOT_WEEKLY_UV + ":tmp:" + runId;
+        writeTemp(tmpHotKey, tmpUvKey, entries);
+        Long size = stringRedisTemplate.execute(
+                SWAP_SCRIPT,
+                Arrays.asList(tmpHotKey, tmpUvKey, RedisKeyPrefix.ARTICLE_HOT_WEEKLY, RedisKeyPrefix.ARTICLE_HOT_WEEKLY_UV)
+        );
+        long finishedAt = System.currentTimeMillis();
+
+        recordRunStats(startedAt, candidates.size(), size != null ? size : 0L, shards,
+                scoredAt - startedAt, finishedAt - scoredAt, finishedAt - startedAt);
+
+        log.info("[HotRank] 热门榜刷新完成: {} 篇候选，{} 篇参与排名（{} 个分片，衰减{}），耗时 {} ms",
+                candidates.size(), size, shards, decayEnabled ? "开启" : "关闭", finishedAt - startedAt);
+    }
+
+    /**
+     * 一次 Pipeline 批量写入临时 Key（多成员 ZADD / HMSET，每条 1000 个成员）
+     */
+    private void writeTemp(String tmpHotKey, String tmpUvKey, List<RankEntry> entries) {
+        if (entries.isEmpty()) return;
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int from = 0; from < entries.size(); from += WRITE_CHUNK_SIZE) {
+                List<RankEntry> chunk = entries.subList(from, Math.min(from + WRITE_CHUNK_SIZE, entries.size()));
+                Set<StringRedisConnection.StringTuple> tuples = new HashSet<>(chunk.size() * 2);
+                Map<String, String> uvs = new HashMap<>(chunk.size() * 2);
+                for (RankEntry entry : chunk) {
+                    tuples.add(new DefaultStringTuple(entry.articleId().toString(), entry.score()));
+                    uvs.put(entry.articleId().toString(), String.valueOf(entry.uv()));
+                }
+                conn.zAdd(tmpHotKey, tuples);
+                conn.hMSet(tmpUvKey, uvs);
+            }
+            conn.expire(tmpHotKey, TMP_KEY_TTL_SECONDS);
+            conn.expire(tmpUvKey, TMP_KEY_TTL_SECONDS);
+            return null;
+        });
+    }
+
+    /**
+     * 记录本轮重建指标（供后台缓存监控页展示）
+     */
+    private void recordRunStats(long startedAt, int candidates, long size, int shards,
+                                long scoreMs, long writeMs, long durationMs) {
+        try {
+            Map<String, String> stats = new LinkedHashMap<>();
+            stats.put("lastRunAt", String.valueOf(startedAt));
+            stats.put("lastCandidates", String.valueOf(candidates));
+            stats.put("lastSize", String.valueOf(size));
+            stats.put("lastShards", String.valueOf(shards));
+            stats.put("lastScoreMs", String.valueOf(scoreMs));
+            stats.put("lastWriteMs", String.valueOf(writeMs));
+            stats.put("lastDurationMs", String.valueOf(durationMs));
+            stringRedisTemplate.opsForHash().putAll(RedisKeyPrefix.ARTICLE_HOT_WEEKLY_STATS, stats);
+        } catch (Exception e) {
+            log.warn("[HotRank] 记录重建指标失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 候选文章：窗口内活跃集合的并集（SUNION）∩ 已发布文章，按 ID 升序
+     */
+    private List<Long> loadCandidates(List<LocalDate> window) {
+        List<String> activeKeys = window.stream()
+                .map(d -> RedisKeyPrefix.TS_ARTICLE_ACTIVE + d.format(ArticleStatsService.DAY_KEY))
+                .collect(Collectors.toList());
+        Set<String> active = stringRedisTemplate.opsForSet().union(activeKeys);
+        if (active == null || active.isEmpty()) return Collections.emptyList();
+
+        Set<Long> published = new HashSet<>(articleRepository.findAllPublishedArticleIds());
+        return active.stream()
+                .map(Long::parseLong)
+                .filter(published::contains)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 衰减模式：一次查询窗口内的日统计，得到每篇文章的 Σ e^(-λ·d) × (w_like·点赞 + w_comment·评论)
+     */
+    private Map<Long, Double> loadEngagement(List<LocalDate> window) {
+        LocalDate today = window.get(0);
+        Map<Long, Double> engagement = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT article_id, stat_date, likes, comments FROM article_stats_daily WHERE stat_date BETWEEN ? AND ?",
+                rs -> {
+                    long d = ChronoUnit.DAYS.between(rs.getDate("stat_date").toLocalDate(), today);
+                    double value = Math.exp(-lambda * d)
+                            * (likeWeight * rs.getLong("likes") + commentWeight * rs.getLong("comments"));
+                    engagement.merge(rs.getLong("article_id"), value, Double::sum);
+                },
+                Date.valueOf(window.get(window.size() - 1)), Date.valueOf(today));
+        return engagement;
+    }
+
+    /**
+     * 一个分片一次 Pipeline：每篇文章 PFCOUNT(7 个日 Key) 求 7 日 UV；
+     * 衰减模式额外追加每天的单日 PFCOUNT
+     */
+    private List<RankEntry> scoreShard(List<Long> shard, List<LocalDate> window, Map<Long, Double> engagement) {
+        List<String> days = window.stream().map(d -> d.format(ArticleStatsService.DAY_KEY)).collect(Collectors.toList());
+        int perArticle = decayEnabled ? 1 + days.size() : 1;
+
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long articleId : shard) {
+                String[] keys = days.stream()
+                        .map(day -> RedisKeyPrefix.TS_ARTICLE_UV_DAILY + articleId + ":" + day)
+                        .toArray(String[]::new);
+                conn.pfCount(keys);
+                if (decayEnabled) {
+                    for (String key : keys) conn.pfCount(key);
+                }
+            }
+            return null;
+        });
+
+        List<RankEntry> entries = new ArrayList<>(shard.size());
+        for (int i = 0; i < shard.size(); i++) {
+            int base = i * perArticle;
+            long uv = toLong(replies.get(base));
+            double score = uv;
+            if (decayEnabled) {
+                score = engagement.getOrDefault(shard.get(i), 0.0);
+                for (int d = 0; d < days.size(); d++) {
+                    score += Math.exp(-lambda * d) * uvWeight * toLong(replies.get(base + 1 + d));
+                }
+            }
+            entries.add(new RankEntry(shard.get(i), uv, score));
+        }
+        return entries;
+    }
 
-        log.info("[HotRank] 热门榜刷新完成: {} 篇文章参与排名", updated);
+    private static long toLong(Object reply) {
+        return reply != null ? ((Number) reply).longValue() : 0L;
     }
 }
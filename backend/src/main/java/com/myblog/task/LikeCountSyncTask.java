@@ -1,14 +1,21 @@
 package com.myblog.task;
 
 import com.myblog.common.constant.RedisKeyPrefix;
-import com.myblog.repository.ArticleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 点赞数定时同步任务 — Write-Behind 模式
@@ -16,6 +23,12 @@ import java.util.Set;
  * 复用 ViewCountSyncTask 的 Write-Behind 模式：
  * 用户点赞写 Redis（实时响应），定时同步到 MySQL（最终一致）
  *
+ * 增量同步：
+ * - like_toggle.lua 在切换点赞时顺带 SADD 文章ID 到脏集合
+ * - 同步时分批 SPOP 脏集合 + MGET 计数器，一条 JDBC batch 写入绝对值
+ * - 成本只和"这 5 分钟内被点赞的文章数"相关，与文章总数无关
+ * - 写库失败时把本批ID放回脏集合，下轮重试
+ *
  * 对标黑马点评：秒杀订单异步写入数据库
  */
 @Slf4j
@@ -23,8 +36,15 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class LikeCountSyncTask {
 
+    /** 每批 SPOP 的文章数 */
+    private static final int DRAIN_BATCH_SIZE = 500;
+
     private final StringRedisTemplate stringRedisTemplate;
-    private final ArticleRepository articleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 首次运行时把升级前遗留的计数器登记进脏集合 */
+    private volatile boolean legacyCountersSeeded = false;
 
     /**
      * 每 5 分钟同步一次 Redis 点赞数到 MySQL
@@ -32,32 +52,98 @@ public class LikeCountSyncTask {
      */
     @Scheduled(fixedRate = 300000, initialDelay = 120000)
     public void syncLikeCounts() {
-        Set<String> keys = stringRedisTemplate.keys(RedisKeyPrefix.ARTICLE_LIKE_COUNT + "*");
-        if (keys == null || keys.isEmpty()) return;
+        if (!legacyCountersSeeded) {
+            seedLegacyCounters();
+        }
+
+        long startedAt = System.currentTimeMillis();
+
+        // 同步延迟 = 本轮开始时间 - 最早一次未同步变更的时间
+        String dirtySince = stringRedisTemplate.opsForValue().getAndDelete(RedisKeyPrefix.ARTICLE_LIKE_DIRTY_SINCE);
+        long lagMs = dirtySince != null ? Math.max(0, startedAt - Long.parseLong(dirtySince)) : 0L;
+
+        int changed = 0;
+        while (true) {
+            List<String> ids = stringRedisTemplate.opsForSet().pop(RedisKeyPrefix.ARTICLE_LIKE_DIRTY, DRAIN_BATCH_SIZE);
+            if (ids == null || ids.isEmpty()) break;
 
-        int synced = 0;
-        for (String key : keys) {
             try {
-                String value = stringRedisTemplate.opsForValue().get(key);
-                if (value == null) continue;
-
-                Long articleId = Long.parseLong(
-                        key.replace(RedisKeyPrefix.ARTICLE_LIKE_COUNT, "")
-                );
-                int likeCount = Integer.parseInt(value);
-
-                articleRepository.findById(articleId).ifPresent(article -> {
-                    article.setLikeCount(likeCount);
-                    articleRepository.save(article);
-                });
-                synced++;
+                changed += applyBatch(ids);
             } catch (Exception e) {
-                log.error("同步点赞数失败: key={}", key, e);
+                // 放回脏集合，下轮重试；保留最早变更时间以便延迟指标如实反映
+                stringRedisTemplate.opsForSet().add(RedisKeyPrefix.ARTICLE_LIKE_DIRTY, ids.toArray(new String[0]));
+                if (dirtySince != null) {
+                    stringRedisTemplate.opsForValue().setIfAbsent(RedisKeyPrefix.ARTICLE_LIKE_DIRTY_SINCE, dirtySince);
+                }
+                log.error("[LikeSync] 批量同步点赞数失败，{} 篇文章放回脏集合", ids.size(), e);
+                break;
             }
+            if (ids.size() < DRAIN_BATCH_SIZE) break;
+        }
+
+        recordRunStats(startedAt, changed, lagMs);
+
+        if (changed > 0) {
+            log.info("[LikeSync] 点赞数同步完成: {} 篇文章，同步延迟 {} ms", changed, lagMs);
+        }
+    }
+
+    /**
+     * 一批文章：MGET 计数器 → 一条 JDBC batch 写入绝对值
+     */
+    private int applyBatch(List<String> ids) {
+        List<String> counterKeys = ids.stream()
+                .map(id -> RedisKeyPrefix.ARTICLE_LIKE_COUNT + id)
+                .collect(Collectors.toList());
+        List<String> counts = stringRedisTemplate.opsForValue().multiGet(counterKeys);
+        if (counts == null) return 0;
+
+        List<Object[]> batchArgs = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            String count = counts.get(i);
+            if (count == null) continue;
+            batchArgs.add(new Object[]{Integer.parseInt(count), Long.parseLong(ids.get(i))});
         }
+        if (batchArgs.isEmpty()) return 0;
 
-        if (synced > 0) {
-            log.info("[LikeSync] 点赞数同步完成: {} 篇文章", synced);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "UPDATE articles SET like_count = ? WHERE id = ?", batchArgs
+        ));
+        return batchArgs.size();
+    }
+
+    /**
+     * 记录本轮运行指标（供后台缓存监控页展示）
+     */
+    private void recordRunStats(long startedAt, int changed, long lagMs) {
+        try {
+            Map<String, String> stats = new LinkedHashMap<>();
+            stats.put("lastRunAt", String.valueOf(startedAt));
+            stats.put("lastChanged", String.valueOf(changed));
+            stats.put("lastLagMs", String.valueOf(lagMs));
+            stats.put("lastDurationMs", String.valueOf(System.currentTimeMillis() - startedAt));
+            stringRedisTemplate.opsForHash().putAll(RedisKeyPrefix.ARTICLE_LIKE_SYNC_STATS, stats);
+        } catch (Exception e) {
+            log.warn("[LikeSync] 记录同步指标失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 兼容升级：用 SCAN（非阻塞）把已存在的计数器登记进脏集合，只执行一次
+     */
+    private void seedLegacyCounters() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(RedisKeyPrefix.ARTICLE_LIKE_COUNT + "*")
+                .count(1000)
+                .build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String articleId = cursor.next().substring(RedisKeyPrefix.ARTICLE_LIKE_COUNT.length());
+                stringRedisTemplate.opsForSet().add(RedisKeyPrefix.ARTICLE_LIKE_DIRTY, articleId);
+            }
+            legacyCountersSeeded = true;
+        } catch (Exception e) {
+            log.warn("[LikeSync] 遗留计数器登记失败: {}", e.getMessage());
         }
     }
 }
@@ -0,0 +1,41 @@
+package com.myblog.task;
+
+import com.myblog.service.CommentModerationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 违禁词自动机加载任务
+ *
+ * - 启动时从 DB 构建一次
+ * - 每 30 秒比对 Redis 中的词库版本号，其他实例改过词库时重建（换入是原子的，审核请求不受影响）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ModerationReloadTask implements ApplicationRunner {
+
+    private final CommentModerationService commentModerationService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            commentModerationService.reload();
+        } catch (Exception e) {
+            log.warn("[Moderation] 启动时加载违禁词失败，等待下一次版本检查: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void reloadIfChanged() {
+        try {
+            commentModerationService.reloadIfChanged();
+        } catch (Exception e) {
+            log.warn("[Moderation] 检查违禁词版本失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.myblog.task;
+
+import com.myblog.service.TrendingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 实时热度榜任务
+ *
+ * - 每秒把进程内累加的事件合并进 Redis（见 TrendingService.flush）
+ * - 每小时检查一次是否需要重置前向衰减基准（通常只是一次 HGET）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrendingTask {
+
+    private final TrendingService trendingService;
+
+    @Scheduled(fixedDelay = 1000, initialDelay = 5000)
+    public void flush() {
+        try {
+            trendingService.flush();
+        } catch (Exception e) {
+            log.warn("[Trending] 合并热度增量失败（本秒事件丢弃）: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 10 * * * ?")
+    public void rescale() {
+        try {
+            trendingService.rescale();
+        } catch (Exception e) {
+            log.warn("[Trending] 重置衰减基准失败: {}", e.getMessage());
+        }
+    }
+}
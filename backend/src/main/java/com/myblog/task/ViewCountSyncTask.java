@@ -1,40 +1,72 @@
 package com.myblog.task;
 
 import com.myblog.common.constant.RedisKeyPrefix;
-import com.myblog.repository.ArticleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Set;
+import java.util.*;
 
 /**
  * 浏览量同步定时任务
- * 
+ *
  * 设计思路：
- *   文章被访问时，浏览量仅在 Redis 中 INCR（不写DB）
- *   定时任务每5分钟将 Redis 中的增量同步到数据库
- *   同步后删除 Redis 中的计数器（下次从0开始累加）
- * 
+ *   文章被访问时，浏览量仅在 Redis 中 INCR（不写DB），同时 SADD 文章ID 到脏集合
+ *   定时任务每5分钟从脏集合取出有变化的文章，把增量批量累加到数据库
+ *
  * 技术亮点：
  *   - 写缓冲（Write-Behind）：高频写操作不直接落DB，批量同步
- *   - 对比原来每次访问写DB：QPS 从 1000→10000+ 提升
- *   - getAndDelete 保证不丢数据（原子读取+删除）
- * 
+ *   - 脏集合代替 KEYS 扫描：成本只和"有访问的文章数"相关
+ *   - Lua 原子搬运（SPOP + GET + DEL + HINCRBY）：同步期间的 INCR 不会丢失
+ *   - 一条 JDBC batch：UPDATE articles SET view_count = view_count + ? WHERE id = ?
+ *   - 待落库 HASH：事务失败时增量保留在 Redis，下一轮自动重试
+ *   - Redisson 锁：待落库 HASH 全局共享，多实例同时读取会把同一份增量重复累加，整轮同步只允许一个实例执行
+ *
  * 面试考点：
  *   - Redis 作为写缓冲层的设计
- *   - @Scheduled 定时任务
- *   - 数据最终一致性
+ *   - 读-删之间的竞态与 Lua 原子性
+ *   - 数据最终一致性（至少一次语义）
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ViewCountSyncTask {
 
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ArticleRepository articleRepository;
+    /** 每批从脏集合弹出的文章数 */
+    private static final int DRAIN_BATCH_SIZE = 500;
+
+    /** 单次同步最多处理的批数（防止单轮任务过长） */
+    private static final int MAX_BATCHES_PER_RUN = 200;
+
+    private static final DefaultRedisScript<Long> DRAIN_SCRIPT;
+    private static final DefaultRedisScript<Long> ACK_SCRIPT;
+    static {
+        DRAIN_SCRIPT = new DefaultRedisScript<>();
+        DRAIN_SCRIPT.setLocation(new ClassPathResource("scripts/view_count_drain.lua"));
+        DRAIN_SCRIPT.setResultType(Long.class);
+
+        ACK_SCRIPT = new DefaultRedisScript<>();
+        ACK_SCRIPT.setLocation(new ClassPathResource("scripts/view_count_ack.lua"));
+        ACK_SCRIPT.setResultType(Long.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RedissonClient redissonClient;
+
+    /** 首次运行时把升级前遗留的计数器登记进脏集合 */
+    private volatile boolean legacyCountersSeeded = false;
 
     /**
      * 每5分钟同步一次浏览量到数据库
@@ -42,44 +74,99 @@ public class ViewCountSyncTask {
      */
     @Scheduled(fixedRate = 5 * 60 * 1000, initialDelay = 60 * 1000)
     public void syncViewCounts() {
-        String pattern = RedisKeyPrefix.ARTICLE_VIEW_COUNT + "*";
-        Set<String> keys = redisTemplate.keys(pattern);
-        
-        if (keys == null || keys.isEmpty()) {
-            return;
+        RLock lock = redissonClient.getLock(RedisKeyPrefix.LOCK_VIEW_COUNT_SYNC);
+        if (!lock.tryLock()) return;
+        try {
+            drainAndFlush();
+        } finally {
+            lock.unlock();
         }
-        
-        int syncCount = 0;
-        for (String key : keys) {
-            try {
-                // 从 key 中提取文章 ID
-                String idStr = key.replace(RedisKeyPrefix.ARTICLE_VIEW_COUNT, "");
-                Long articleId = Long.parseLong(idStr);
-                
-                // 先读取增量值（不删除）
-                Object value = redisTemplate.opsForValue().get(key);
-                if (value == null) continue;
-                
-                int increment = ((Number) value).intValue();
-                if (increment <= 0) continue;
-                
-                // 将增量累加到数据库
-                articleRepository.findById(articleId).ifPresent(article -> {
-                    article.setViewCount(article.getViewCount() + increment);
-                    articleRepository.save(article);
-                });
-                
-                // DB 写入成功后再删除 Redis 中的计数器
-                redisTemplate.delete(key);
-                
-                syncCount++;
-            } catch (Exception e) {
-                log.error("同步文章浏览量失败, key={}", key, e);
-            }
+    }
+
+    private void drainAndFlush() {
+        if (!legacyCountersSeeded) {
+            seedLegacyCounters();
         }
-        
+
+        // 先重试上一轮未落库的增量
+        int syncCount = flushPending();
+
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            Long popped = stringRedisTemplate.execute(
+                    DRAIN_SCRIPT,
+                    Arrays.asList(RedisKeyPrefix.ARTICLE_VIEW_DIRTY, RedisKeyPrefix.ARTICLE_VIEW_PENDING),
+                    RedisKeyPrefix.ARTICLE_VIEW_COUNT, String.valueOf(DRAIN_BATCH_SIZE)
+            );
+            if (popped == null || popped == 0) break;
+
+            syncCount += flushPending();
+            if (popped < DRAIN_BATCH_SIZE) break;
+        }
+
         if (syncCount > 0) {
             log.info("[ViewCountSync] 已同步 {} 篇文章的浏览量到数据库", syncCount);
         }
     }
+
+    /**
+     * 把待落库 HASH 中的增量一次性批量写入 DB
+     *
+     * @return 成功写入的文章数；事务失败返回 0，增量留在 Redis 等待下次重试
+     */
+    private int flushPending() {
+        Map<Object, Object> pending = stringRedisTemplate.opsForHash()
+                .entries(RedisKeyPrefix.ARTICLE_VIEW_PENDING);
+        if (pending.isEmpty()) return 0;
+
+        List<Object[]> batchArgs = new ArrayList<>(pending.size());
+        List<String> ackArgs = new ArrayList<>(pending.size() * 2);
+        for (Map.Entry<Object, Object> entry : pending.entrySet()) {
+            String articleId = entry.getKey().toString();
+            String delta = entry.getValue().toString();
+            batchArgs.add(new Object[]{Long.parseLong(delta), Long.parseLong(articleId)});
+            ackArgs.add(articleId);
+            ackArgs.add(delta);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE articles SET view_count = view_count + ? WHERE id = ?", batchArgs
+            ));
+        } catch (Exception e) {
+            log.error("[ViewCountSync] 批量写入浏览量失败，{} 条增量保留待重试", batchArgs.size(), e);
+            return 0;
+        }
+
+        // DB 已提交 → 扣减 pending（若此处失败，下次会重复累加，属于至少一次语义）
+        stringRedisTemplate.execute(
+                ACK_SCRIPT,
+                Collections.singletonList(RedisKeyPrefix.ARTICLE_VIEW_PENDING),
+                ackArgs.toArray()
+        );
+        return batchArgs.size();
+    }
+
+    /**
+     * 兼容升级：用 SCAN（非阻塞）把已存在的计数器登记进脏集合，只执行一次
+     */
+    private void seedLegacyCounters() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(RedisKeyPrefix.ARTICLE_VIEW_COUNT + "*")
+                .count(1000)
+                .build();
+        int seeded = 0;
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String articleId = cursor.next().substring(RedisKeyPrefix.ARTICLE_VIEW_COUNT.length());
+                stringRedisTemplate.opsForSet().add(RedisKeyPrefix.ARTICLE_VIEW_DIRTY, articleId);
+                seeded++;
+            }
+            legacyCountersSeeded = true;
+        } catch (Exception e) {
+            log.warn("[ViewCountSync] 遗留计数器登记失败: {}", e.getMessage());
+        }
+        if (seeded > 0) {
+            log.info("[ViewCountSync] 已登记 {} 个遗留浏览量计数器", seeded);
+        }
+    }
 }
@@ -0,0 +1,68 @@
+-- checkin.lua
+-- 原子操作：签到 + 去重 + 续期 + 本月签到天数 + 跨月连续签到 + 排行榜 + 全站日活位图（一次往返）
+--
+-- 去重直接使用 SETBIT 的返回值（原值）：并发的两个请求只有一个能看到 0，
+-- 不存在 GETBIT → SETBIT 之间的竞态窗口。
+--
+-- 连续签到不再依赖月度位图，而是增量维护 last / cur / best：
+--   last = 昨天 → cur + 1；last = 今天 → 不变；否则 → 1
+-- 当前连续榜按"最近签到日"分 Key：今天签到后从昨天的榜移到今天的榜，
+-- 因此"今天 + 昨天"两个 ZSET 互不重叠，恰好是所有仍然有效的连续签到。
+--
+-- KEYS[1] = sign:{userId}:{yyyyMM}  (BitMap，offset = 当月第几天，offset 0 不使用)
+-- KEYS[2] = sign:streak:{userId}  (HASH，last / cur / best)
+-- KEYS[3] = sign:rank:current:{今天 yyyyMMdd}  (ZSET)
+-- KEYS[4] = sign:rank:current:{昨天 yyyyMMdd}  (ZSET)
+-- KEYS[5] = sign:rank:best  (ZSET)
+-- KEYS[6] = sign:daily:{今天 yyyyMMdd}  (BitMap，offset = userId，供 DAU / WAU / MAU / 留存统计)
+-- ARGV[1] = 今天是当月第几天（1 ~ 31）
+-- ARGV[2] = 月度位图过期时间（秒）
+-- ARGV[3] = 今天的 epochDay
+-- ARGV[4] = userId
+-- ARGV[5] = 当前连续榜过期时间（秒，需覆盖今天和明天）
+-- ARGV[6] = 全站日活位图过期时间（秒）
+--
+-- 返回值：{是否本次签到, 本月签到天数, 当前连续天数, 最长连续天数}
+--   是否本次签到 0 = 今日已签到（位图未改变），1 = 签到成功
+
+local day = tonumber(ARGV[1])
+local today = tonumber(ARGV[3])
+
+local old = redis.call('SETBIT', KEYS[1], day, 1)
+local count = redis.call('BITCOUNT', KEYS[1])
+local state = redis.call('HMGET', KEYS[2], 'last', 'cur', 'best')
+local last = tonumber(state[1])
+local cur = tonumber(state[2]) or 0
+local best = tonumber(state[3]) or 0
+
+if old == 1 and last == today then
+    return {0, count, cur, best}
+end
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+
+if last == nil then
+    -- 升级前已有签到记录的用户：用本月位图推算（今天在最低位，统计末尾连续 1）
+    local bits = redis.call('BITFIELD', KEYS[1], 'GET', 'u' .. day, 1)[1]
+    cur = 0
+    while bits % 2 == 1 do
+        cur = cur + 1
+        bits = (bits - 1) / 2
+    end
+elseif last == today - 1 then
+    cur = cur + 1
+elseif last ~= today then
+    cur = 1
+end
+if cur > best then
+    best = cur
+end
+
+redis.call('HSET', KEYS[2], 'last', today, 'cur', cur, 'best', best)
+redis.call('ZREM', KEYS[4], ARGV[4])
+redis.call('ZADD', KEYS[3], cur, ARGV[4])
+redis.call('EXPIRE', KEYS[3], ARGV[5])
+redis.call('ZADD', KEYS[5], best, ARGV[4])
+redis.call('SETBIT', KEYS[6], ARGV[4], 1)
+redis.call('EXPIRE', KEYS[6], ARGV[6])
+
+return {1 - old, count, cur, best}
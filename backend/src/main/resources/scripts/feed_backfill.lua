@@ -0,0 +1,28 @@
+-- feed_backfill.lua
+-- 关注标签时回填：把标签时间线最近 N 篇文章合并进用户收件箱
+--
+-- KEYS[1] = feed:{userId}          (ZSET，收件箱)
+-- KEYS[2] = tag:timeline:{tagId}   (ZSET，标签时间线)
+-- KEYS[3] = feed:tombstone         (ZSET，已删除 / 撤回的文章)
+-- ARGV[1] = 回填条数 N
+-- ARGV[2] = 收件箱上限
+--
+-- 返回值：新加入收件箱的条目数
+--
+-- 说明：
+-- - 相当于只取时间线前 N 名的 ZUNIONSTORE（AGGREGATE 不影响结果：同一文章两边 score 都是发布时间）
+-- - 在一个脚本内完成读取、过滤墓碑、写入和裁剪，成本只与 N 有关
+
+local rows = redis.call('ZREVRANGE', KEYS[2], 0, tonumber(ARGV[1]) - 1, 'WITHSCORES')
+local added = 0
+
+for j = 1, #rows, 2 do
+    if not redis.call('ZSCORE', KEYS[3], rows[j]) then
+        added = added + redis.call('ZADD', KEYS[1], rows[j + 1], rows[j])
+    end
+end
+
+if added > 0 then
+    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[2]) + 1))
+end
+return added
@@ -0,0 +1,44 @@
+-- feed_page.lua
+-- Feed 分页读取：逐个来源取 lastTimestamp 及之前的条目，跳过墓碑文章并补足条数
+--
+-- KEYS[1]    = feed:tombstone          (ZSET，已删除 / 撤回的文章)
+-- KEYS[2]    = feed:{userId}           (ZSET，收件箱)
+-- KEYS[3..n] = tag:timeline:{tagId}    (ZSET，用户关注的大标签时间线)
+-- ARGV[1]    = max score（lastTimestamp）
+-- ARGV[2]    = 每个来源需要的存活条目数（offset + count）
+--
+-- 返回值：每个来源一个数组 {member1, score1, member2, score2, ...}，score 降序
+--
+-- 说明：
+-- - 命中墓碑的条目被跳过并继续向后读取，直到凑够条数或来源读完，页面不会因已删除文章变短
+-- - 收件箱中的墓碑条目顺手 ZREM，同一个失效 ID 只会被检查一次
+-- - 标签时间线在文章删除 / 撤回时已同步移除，这里只做兜底过滤
+
+local limit = tonumber(ARGV[2])
+local result = {}
+
+for i = 2, #KEYS do
+    local live = {}
+    local dead = {}
+    local start = 0
+    while #live < limit * 2 do
+        local rows = redis.call('ZREVRANGEBYSCORE', KEYS[i], ARGV[1], 0, 'WITHSCORES', 'LIMIT', start, limit)
+        for j = 1, #rows, 2 do
+            if redis.call('ZSCORE', KEYS[1], rows[j]) then
+                dead[#dead + 1] = rows[j]
+            elseif #live < limit * 2 then
+                live[#live + 1] = rows[j]
+                live[#live + 1] = rows[j + 1]
+            end
+        end
+        if #rows < limit * 2 then break end
+        start = start + limit
+    end
+
+    if i == 2 and #dead > 0 then
+        redis.call('ZREM', KEYS[2], unpack(dead))
+    end
+    result[#result + 1] = live
+end
+
+return result
@@ -0,0 +1,29 @@
+-- feed_purge.lua
+-- Feed 清理任务：从一批收件箱中移除命中墓碑的条目
+--
+-- KEYS[1]    = feed:tombstone   (ZSET，已删除 / 撤回的文章)
+-- KEYS[2..n] = feed:{userId}    (ZSET，收件箱)
+--
+-- 返回值：移除的条目总数
+--
+-- 说明：
+-- - 收件箱长度有上限（inbox-size），逐个 ZSCORE 墓碑的成本与批大小 × 上限相关
+-- - 清理任务每轮遍历都会执行一次，墓碑过期删除前其 ID 已从仍保留的收件箱中移除，
+--   过期的墓碑不会让失效文章重新出现在 Feed 中
+
+local removed = 0
+
+for i = 2, #KEYS do
+    local members = redis.call('ZRANGE', KEYS[i], 0, -1)
+    local dead = {}
+    for j = 1, #members do
+        if redis.call('ZSCORE', KEYS[1], members[j]) then
+            dead[#dead + 1] = members[j]
+        end
+    end
+    if #dead > 0 then
+        removed = removed + redis.call('ZREM', KEYS[i], unpack(dead))
+    end
+end
+
+return removed
@@ -0,0 +1,15 @@
+-- feed_scan.lua
+-- Feed 清理任务的单步 SCAN：从给定游标继续扫描一批 Key
+--
+-- ARGV[1] = 游标（首次为 0）
+-- ARGV[2] = MATCH 模式（feed:*）
+-- ARGV[3] = COUNT
+--
+-- 返回值：{下一个游标, {key1, key2, ...}}，游标为 0 表示本轮遍历结束
+--
+-- 说明：
+-- - Spring Data Redis 的 Cursor 无法从指定游标恢复，这里直接透传 SCAN，
+--   由调用方把游标保存在 Redis 中，任务中断或达到单次预算后下次从断点继续
+-- - SCAN 每次只遍历 COUNT 个槽位，不会像 KEYS 那样长时间阻塞
+
+return redis.call('SCAN', ARGV[1], 'MATCH', ARGV[2], 'COUNT', ARGV[3])
@@ -0,0 +1,31 @@
+-- hot_rank_swap.lua
+-- 原子切换热门榜：把新构建的临时 Key RENAME 为正式 Key
+--
+-- KEYS[1] = article:hot:weekly:tmp:{runId}     (ZSET，新排行)
+-- KEYS[2] = article:hot:weekly:uv:tmp:{runId}  (HASH，新 7 日 UV)
+-- KEYS[3] = article:hot:weekly                 (ZSET，正式排行)
+-- KEYS[4] = article:hot:weekly:uv              (HASH，正式 7 日 UV)
+--
+-- 返回值：新排行的文章数
+--
+-- 说明：
+-- - RENAME 会原子覆盖旧 Key，读者任何时刻都只会看到完整的旧榜或完整的新榜
+-- - 新排行为空时（近 7 天无访问）临时 Key 不存在，直接删除正式 Key
+
+local size = redis.call('ZCARD', KEYS[1])
+
+if size > 0 then
+    redis.call('RENAME', KEYS[1], KEYS[3])
+    redis.call('PERSIST', KEYS[3])
+else
+    redis.call('DEL', KEYS[3])
+end
+
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('RENAME', KEYS[2], KEYS[4])
+    redis.call('PERSIST', KEYS[4])
+else
+    redis.call('DEL', KEYS[4])
+end
+
+return size
@@ -0,0 +1,27 @@
+-- like_event_drain.lua
+-- 原子操作：从点赞事件队列取出一批事件，移入处理中队列
+--
+-- KEYS[1] = article:like:events  (LIST，like_toggle.lua 追加的切换事件)
+-- KEYS[2] = article:like:events:processing  (LIST，已取出但尚未写入 DB 的事件)
+-- ARGV[1] = 本批最多取出的事件数
+--
+-- 返回值：本批事件列表
+--
+-- 说明：
+-- - 处理中队列非空说明上一批写库失败，原样返回重试（事件按最终状态落库，重放幂等）
+-- - DB 提交成功后由调用方 DEL 处理中队列
+-- - 调用方需持有 lock:like:event:sync，保证同一时刻只有一个实例处理这批事件
+
+local inflight = redis.call('LRANGE', KEYS[2], 0, -1)
+if #inflight > 0 then
+    return inflight
+end
+
+local batch = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1)
+if #batch == 0 then
+    return batch
+end
+
+redis.call('LTRIM', KEYS[1], #batch, -1)
+redis.call('RPUSH', KEYS[2], unpack(batch))
+return batch
@@ -0,0 +1,18 @@
+-- like_pending_ack.lua
+-- 一批点赞事件落库后，清理按文章索引的未落库状态
+--
+-- KEYS[1..N] = 本批涉及的 article:like:pending:{articleId}  (HASH)
+-- ARGV 每 3 个一组：HASH Key 在 KEYS 中的下标, visitorId, 已落库的最终状态（1/0）
+--
+-- 返回值：本批处理的 (文章, 访客) 数
+--
+-- 只在当前值仍等于已落库状态时 HDEL：落库期间访客又切换了的，保留新状态等下一批
+
+for i = 1, #ARGV, 3 do
+    local key = KEYS[tonumber(ARGV[i])]
+    if redis.call('HGET', key, ARGV[i + 1]) == ARGV[i + 2] then
+        redis.call('HDEL', key, ARGV[i + 1])
+    end
+end
+
+return #ARGV / 3
@@ -1,25 +1,82 @@
 -- like_toggle.lua
--- 原子操作：判断 + 切换点赞状态 + 更新计数
+-- 原子操作：连点去重 + 判断 + 切换点赞状态 + 更新计数 + 登记脏集合
 --
--- KEYS[1] = article:liked:{articleId}  (SET)
+-- 脚本本身在 Redis 单线程内原子执行，无需外层分布式锁；
+-- 同一访客对同一文章的连点（双击）用短窗口 SET NX PX 去重。
+--
+-- KEYS[1] = article:like:bits:{articleId}  (BitMap，注册用户)
+--        或 article:like:anon:{articleId}  (SET，游客指纹)
 -- KEYS[2] = article:like:count:{articleId}  (String)
--- ARGV[1] = userId
+-- KEYS[3] = article:like:dirty  (SET，待同步到 DB 的文章ID)
+-- KEYS[4] = article:like:dirty:since  (String，脏集合中最早一次变更的时间戳)
+-- KEYS[5] = like:dedupe:{visitorId}:{articleId}  (String，连点去重窗口)
+-- KEYS[6] = article:like:events  (LIST，待写入 article_likes 表的切换事件)
+-- KEYS[7] = article:like:pending:{articleId}  (HASH，field = visitorId，value = 尚未落库的最终状态 1/0)
+-- ARGV[1] = 位图 offset（userId）或游客指纹
+-- ARGV[2] = articleId
+-- ARGV[3] = 当前时间戳（毫秒）
+-- ARGV[4] = 去重窗口（毫秒）
+-- ARGV[5] = 存储模式：bit = 位图，set = 指纹集合
+-- ARGV[6] = 原始访客ID（写入事件，供落库）
+--
+-- 返回值：{是否已赞, 当前计数, 状态}
+--   状态 0 = 已切换，1 = 窗口内重复点击（未切换），2 = 计数器或成员结构不存在，需先从 DB 重建
+
+-- 计数器与成员结构必须同时存在：allkeys-lru 可能只淘汰其中一个，
+-- 若成员结构缺失而计数器还在，回头的点赞者会被当成新用户再 INCR 一次。
+-- 重建时两种成员结构都会写入哨兵（位图 offset 0 / SET 成员 -1），"还没有人点赞"也不会缺 Key
+if redis.call('EXISTS', KEYS[1], KEYS[2]) < 2 then
+    return {0, 0, 2}
+end
+
+local bitmap = ARGV[5] == 'bit'
+
+local isMember
+if bitmap then
+    isMember = redis.call('GETBIT', KEYS[1], ARGV[1])
+else
+    isMember = redis.call('SISMEMBER', KEYS[1], ARGV[1])
+end
 
-local isMember = redis.call('SISMEMBER', KEYS[1], ARGV[1])
+-- 窗口内的重复点击：不切换，直接返回当前状态
+if not redis.call('SET', KEYS[5], '1', 'PX', tonumber(ARGV[4]), 'NX') then
+    local current = tonumber(redis.call('GET', KEYS[2]) or '0')
+    return {isMember, current, 1}
+end
 
+local liked, count
 if isMember == 1 then
-    -- 已赞 → 取消：从 SET 移除 + 计数 -1
-    redis.call('SREM', KEYS[1], ARGV[1])
-    local count = redis.call('DECR', KEYS[2])
+    -- 已赞 → 取消：清除位 / 从 SET 移除 + 计数 -1
+    if bitmap then
+        redis.call('SETBIT', KEYS[1], ARGV[1], 0)
+    else
+        redis.call('SREM', KEYS[1], ARGV[1])
+    end
+    count = redis.call('DECR', KEYS[2])
     -- 防止负数
     if count < 0 then
         redis.call('SET', KEYS[2], 0)
         count = 0
     end
-    return {0, count}
+    liked = 0
 else
-    -- 未赞 → 点赞：加入 SET + 计数 +1
-    redis.call('SADD', KEYS[1], ARGV[1])
-    local count = redis.call('INCR', KEYS[2])
-    return {1, count}
+    -- 未赞 → 点赞：置位 / 加入 SET + 计数 +1
+    if bitmap then
+        redis.call('SETBIT', KEYS[1], ARGV[1], 1)
+    else
+        redis.call('SADD', KEYS[1], ARGV[1])
+    end
+    count = redis.call('INCR', KEYS[2])
+    liked = 1
 end
+
+-- 登记脏集合，供 LikeCountSyncTask 增量同步（NX：只记录最早的未同步时间）
+redis.call('SADD', KEYS[3], ARGV[2])
+redis.call('SET', KEYS[4], ARGV[3], 'NX')
+
+-- 追加切换事件，供 ArticleLikeSyncTask 批量写入 article_likes：{1|0}|articleId|时间戳|visitorId
+redis.call('RPUSH', KEYS[6], liked .. '|' .. ARGV[2] .. '|' .. ARGV[3] .. '|' .. ARGV[6])
+-- 按文章索引未落库的最终状态，重建时只读本文章的 HASH，不扫描整个事件队列
+redis.call('HSET', KEYS[7], ARGV[6], liked)
+
+return {liked, count, 0}
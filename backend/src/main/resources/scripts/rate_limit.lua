@@ -1,4 +1,4 @@
--- 滑动窗口限流 Lua 脚本
+-- 滑动日志限流 Lua 脚本（ZSET，精确但内存与窗口内请求数成正比）
 -- 原子操作：保证在高并发场景下的计数精确性
 --
 -- 原理：使用Redis ZSET（有序集合）实现滑动窗口
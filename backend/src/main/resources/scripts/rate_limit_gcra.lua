@@ -0,0 +1,44 @@
+-- GCRA（通用信元速率算法）限流 Lua 脚本，等价于令牌桶
+-- 原子操作：保证在高并发场景下的计数精确性
+--
+-- 原理：每个 Key 只存一个值 TAT（理论到达时间，毫秒）
+-- - 发放间隔 interval = 窗口大小 / 最大请求次数
+-- - 请求到达时 newTat = max(TAT, now) + interval
+-- - newTat - 窗口大小 > now 说明桶已空，拒绝；否则写回 newTat 并放行
+-- - 窗口内最多突发 maxRequests 次，之后按 interval 匀速恢复
+-- 内存与 CPU 均为 O(1)，与窗口内请求数无关；被拒绝的请求不写 Redis
+--
+-- KEYS[1]: 限流的Key（String，存 TAT）
+-- ARGV[1]: 当前时间戳（毫秒）
+-- ARGV[2]: 窗口大小（毫秒）
+-- ARGV[3]: 最大请求次数（桶容量）
+--
+-- 返回值（与 rate_limit.lua 一致）：
+-- [0]: 0=允许通过, 1=被限流
+-- [1]: 当前已占用的请求数
+-- [2]: 剩余允许的请求数
+
+local key = KEYS[1]
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local maxRequests = tonumber(ARGV[3])
+local interval = window / maxRequests
+
+-- Step 1: 读取 TAT，不存在或已过期视为 now（桶满）
+local tat = tonumber(redis.call('GET', key) or now)
+if tat < now then
+    tat = now
+end
+
+-- Step 2: 判断桶内是否还有令牌
+local newTat = tat + interval
+local allowAt = newTat - window
+if now < allowAt then
+    return {1, maxRequests, 0}
+end
+
+-- Step 3: 写回 TAT，TTL = 桶恢复满所需时间
+redis.call('SET', key, newTat, 'PX', math.ceil(newTat - now))
+
+local remaining = math.floor((now - allowAt) / interval)
+return {0, maxRequests - remaining, remaining}
@@ -0,0 +1,40 @@
+-- 滑动窗口计数器限流 Lua 脚本（双桶近似）
+-- 原子操作：保证在高并发场景下的计数精确性
+--
+-- 原理：按窗口大小切分固定窗口，每个窗口一个计数器（String INCR）
+-- - 估算值 = 上一窗口计数 × 上一窗口在滑动窗口内的占比 + 当前窗口计数
+-- - 估算值未超限则当前窗口 INCR，否则拒绝
+-- 每个限流维度最多同时存在两个计数器，内存与 CPU 均为 O(1)；
+-- 假设上一窗口内请求均匀分布，误差远小于固定窗口的临界突发
+--
+-- KEYS[1]: 当前窗口计数 Key（{限流Key}:sw:{窗口序号}）
+-- KEYS[2]: 上一窗口计数 Key
+-- ARGV[1]: 当前时间戳（毫秒）
+-- ARGV[2]: 窗口大小（毫秒）
+-- ARGV[3]: 最大请求次数
+--
+-- 返回值（与 rate_limit.lua 一致）：
+-- [0]: 0=允许通过, 1=被限流
+-- [1]: 当前窗口内的估算请求数
+-- [2]: 剩余允许的请求数
+
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local maxRequests = tonumber(ARGV[3])
+
+-- Step 1: 读取两个窗口的计数
+local current = tonumber(redis.call('GET', KEYS[1]) or 0)
+local previous = tonumber(redis.call('GET', KEYS[2]) or 0)
+
+-- Step 2: 按上一窗口剩余占比加权估算
+local elapsed = now % window
+local estimated = math.floor(previous * (window - elapsed) / window) + current
+if estimated >= maxRequests then
+    return {1, estimated, 0}
+end
+
+-- Step 3: 当前窗口计数 +1，保留到下一窗口结束（届时作为"上一窗口"被读取）
+redis.call('INCR', KEYS[1])
+redis.call('PEXPIRE', KEYS[1], window * 2)
+
+return {0, estimated + 1, maxRequests - estimated - 1}
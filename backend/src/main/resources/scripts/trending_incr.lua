@@ -0,0 +1,56 @@
+-- trending_incr.lua
+-- 批量累加实时热度（前向衰减 Forward Decay）
+--
+-- 热度 = Σ w_i × e^(-λ·(now - t_i))。为避免每次都衰减全体成员，改为按固定基准时间 epoch 放大新事件：
+--   写入：ZINCRBY key  w × e^(λ·(t - epoch))
+--   读取：score × e^(-λ·(now - epoch))
+-- 每个事件的写入成本恒定，排名顺序与真实衰减热度一致，无需周期性全量扫描。
+--
+-- KEYS[1] = trending:meta:epoch  (HASH，field = 榜单 Key，value = 该榜单的基准时间秒；
+--           field = 窗口名的旧记录只用于升级前已存在的榜单，新榜单以当前时间为基准)
+-- KEYS[2] = trending:meta:keys  (SET，榜单注册表，供 trending_rescale.lua 分批缩放)
+-- KEYS[3..N] = 本批涉及的榜单 Key（ZSET，去重）
+-- ARGV[1] = 当前时间（秒）
+-- ARGV[2] = 每个榜单保留的最大成员数
+-- 之后每 5 个一组：榜单 Key 在 KEYS 中的下标, 窗口名, λ, articleId, 权重
+--
+-- 返回值：本次写入的条数
+--
+-- 说明：每个榜单的 epoch 在脚本内读取，与 trending_rescale.lua 对同一榜单的重置互斥（脚本原子执行），
+-- 不会出现基准错位
+
+local now = tonumber(ARGV[1])
+local maxSize = tonumber(ARGV[2])
+
+local factors = {}
+local count = 0
+
+for i = 3, #ARGV, 5 do
+    local key = KEYS[tonumber(ARGV[i])]
+    local lambda = tonumber(ARGV[i + 2])
+
+    local factor = factors[key]
+    if not factor then
+        local epoch = redis.call('HGET', KEYS[1], key)
+        if not epoch then
+            epoch = now
+            if redis.call('EXISTS', key) == 1 then
+                epoch = redis.call('HGET', KEYS[1], ARGV[i + 1]) or now
+            end
+            redis.call('HSET', KEYS[1], key, epoch)
+        end
+        factor = math.exp(lambda * (now - tonumber(epoch)))
+        factors[key] = factor
+    end
+
+    redis.call('ZINCRBY', key, tonumber(ARGV[i + 4]) * factor, ARGV[i + 3])
+    count = count + 1
+end
+
+-- 只保留每个榜单的前 maxSize 名，并登记到注册表
+for i = 3, #KEYS do
+    redis.call('ZREMRANGEBYRANK', KEYS[i], 0, -(maxSize + 1))
+    redis.call('SADD', KEYS[2], KEYS[i])
+end
+
+return count
@@ -0,0 +1,45 @@
+-- trending_rescale.lua
+-- 重置一批榜单的前向衰减基准时间，防止 e^(λ·(t - epoch)) 随时间增长溢出
+--
+-- KEYS[1] = trending:meta:epoch  (HASH，field = 榜单 Key)
+-- KEYS[2] = trending:meta:keys  (SET，榜单注册表)
+-- KEYS[3..N] = 本批榜单 Key（同一窗口，调用方 SMEMBERS 注册表后分批传入）
+-- ARGV[1] = 窗口名（如 1h，榜单尚未单独记录基准时的默认 field）
+-- ARGV[2] = λ
+-- ARGV[3] = 当前时间（秒）
+-- ARGV[4] = 触发阈值：λ·(now - epoch) 超过该值才重置
+--
+-- 返回值：本批重置的榜单数
+--
+-- 做法：ZUNIONSTORE key 1 key WEIGHTS e^(-λ·Δ) 原地缩放，再把该榜单的 epoch 改为 now
+-- 排名顺序不变；每个榜单有独立的 epoch，缩放与 epoch 更新在同一脚本内完成，
+-- 分批执行时与 trending_incr.lua 也不会交错出错位的分数
+
+local lambda = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+local threshold = tonumber(ARGV[4])
+local windowEpoch = redis.call('HGET', KEYS[1], ARGV[1])
+local rescaled = 0
+
+for i = 3, #KEYS do
+    local key = KEYS[i]
+    if redis.call('EXISTS', key) == 1 then
+        local epoch = redis.call('HGET', KEYS[1], key)
+        if not epoch then
+            -- 升级前的榜单：固定为窗口的旧基准
+            epoch = windowEpoch or now
+            redis.call('HSET', KEYS[1], key, epoch)
+        end
+        epoch = tonumber(epoch)
+        if lambda * (now - epoch) >= threshold then
+            redis.call('ZUNIONSTORE', key, 1, key, 'WEIGHTS', math.exp(-lambda * (now - epoch)))
+            redis.call('HSET', KEYS[1], key, now)
+            rescaled = rescaled + 1
+        end
+    else
+        redis.call('SREM', KEYS[2], key)
+        redis.call('HDEL', KEYS[1], key)
+    end
+end
+
+return rescaled
@@ -0,0 +1,20 @@
+-- view_count_ack.lua
+-- DB 批量更新提交成功后，从待落库 HASH 中扣减已写入的增量
+--
+-- KEYS[1] = article:view:pending  (HASH)
+-- ARGV    = id1, delta1, id2, delta2, ...
+--
+-- 用 HINCRBY 负数扣减而不是直接 HDEL：
+-- 同步期间其他节点新搬入的增量会保留下来，留给下一次同步
+--
+-- 只在恰好扣到 0 时 HDEL：负数说明增量被重复写入了 DB，保留负值，
+-- 下一次同步会把多加的部分减回去，而不是悄悄吞掉
+
+for i = 1, #ARGV, 2 do
+    local left = redis.call('HINCRBY', KEYS[1], ARGV[i], -tonumber(ARGV[i + 1]))
+    if left == 0 then
+        redis.call('HDEL', KEYS[1], ARGV[i])
+    end
+end
+
+return #ARGV / 2
@@ -0,0 +1,29 @@
+-- view_count_drain.lua
+-- 原子操作：从脏集合弹出一批文章ID，把它们的浏览量增量搬进待落库 HASH
+--
+-- KEYS[1] = article:view:dirty    (SET，有浏览增量的文章ID)
+-- KEYS[2] = article:view:pending  (HASH，已取出但尚未写入 DB 的增量)
+-- ARGV[1] = article:view:count:   (计数器前缀)
+-- ARGV[2] = 本批最多弹出的文章数
+--
+-- 返回值：本批弹出的文章ID数量（小于 ARGV[2] 说明脏集合已取空）
+--
+-- 说明：
+-- - GET + DEL 在脚本内原子执行，期间的 INCR 不会丢失（要么已计入、要么落到新计数器）
+-- - 增量先 HINCRBY 进 pending，DB 提交成功后才删除；失败时下次同步自动重试
+
+local ids = redis.call('SPOP', KEYS[1], tonumber(ARGV[2]))
+
+for _, id in ipairs(ids) do
+    local counterKey = ARGV[1] .. id
+    local delta = redis.call('GET', counterKey)
+    if delta then
+        redis.call('DEL', counterKey)
+        local n = tonumber(delta)
+        if n and n > 0 then
+            redis.call('HINCRBY', KEYS[2], id, n)
+        end
+    end
+end
+
+return #ids
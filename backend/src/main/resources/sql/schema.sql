@@ -142,13 +142,17 @@ ADD INDEX `idx_article_id` (`article_id`),
 ADD INDEX `idx_user_id` (`user_id`),
 ADD INDEX `idx_parent_id` (`parent_id`),
 ADD INDEX `idx_root_id` (`root_id`),
-ADD INDEX `idx_created_at` (`created_at`);
+ADD INDEX `idx_created_at` (`created_at`),
+ADD INDEX `idx_comment_created_id` (`created_at`, `id`),
+ADD INDEX `idx_comment_article_created` (`article_id`, `approved`, `created_at`, `id`);
 
 -- 索引设计理由：
 -- idx_article_id: 查询文章的所有评论（高频）
 -- idx_parent_id: 查询子评论（树形结构）
 -- idx_root_id: 快速定位整个评论树
 -- idx_created_at: 按时间排序
+-- idx_comment_created_id: 管理后台游标分页 WHERE (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+-- idx_comment_article_created: 文章评论树一次读出已审核评论，索引有序免 filesort
 
 -- =============================================
 -- 3. 运维表
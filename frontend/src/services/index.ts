@@ -59,6 +59,10 @@ export const articleApi = {
   // 查询点赞状态
   getLikeStatus: (id: number) =>
     get<{ liked: boolean; likeCount: number }>(`/articles/${id}/like/status`),
+
+  // 批量查询点赞状态（列表页，一次请求覆盖所有卡片）
+  getLikeStatuses: (ids: number[]) =>
+    post<Record<number, { liked: boolean; likeCount: number }>>('/articles/like/status', ids),
 };
 
 // ==================== 分类 API ====================